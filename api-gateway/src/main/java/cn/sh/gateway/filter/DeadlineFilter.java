@@ -0,0 +1,91 @@
+package cn.sh.gateway.filter;
+
+import cn.sh.common.deadline.Deadline;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_DECORATION_FILTER_ORDER;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PRE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PROXY_KEY;
+
+/**
+ * 为转发的请求设置截止时间，下游每一跳扣除已经过去的时间后继续传递
+ * 时限按路由配置，客户端自带更短的截止时间时使用客户端的值，客户端的截止时间已过则直接返回504
+ * 排在PreDecorationFilter之后，此时已经确定了路由
+ * @author sh
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.deadline")
+public class DeadlineFilter extends ZuulFilter {
+
+    /**
+     * 默认时限，0表示不设置
+     */
+    private long defaultMillis;
+
+    /**
+     * 按路由名配置的时限
+     */
+    private Map<String, Long> routes = new HashMap<>();
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return PRE_DECORATION_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return RequestContext.getCurrentContext().sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+        RequestContext context = RequestContext.getCurrentContext();
+        long millis = routes.getOrDefault(context.get(PROXY_KEY), defaultMillis);
+        String header = context.getRequest().getHeader(Deadline.HEADER);
+        boolean requested = false;
+        if (header != null) {
+            try {
+                long value = Long.parseLong(header.trim());
+                millis = millis > 0 ? Math.min(millis, value) : value;
+                requested = true;
+            } catch (NumberFormatException e) {
+                // 忽略无法解析的值，使用网关配置
+            }
+        }
+        if (requested && millis <= 0) {
+            context.setSendZuulResponse(false);
+            context.setResponseStatusCode(HttpStatus.GATEWAY_TIMEOUT.value());
+        } else if (millis > 0) {
+            context.addZuulRequestHeader(Deadline.HEADER, String.valueOf(millis));
+        }
+        return null;
+    }
+
+    public Map<String, Long> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Long> routes) {
+        this.routes = routes;
+    }
+
+    public long getDefaultMillis() {
+        return defaultMillis;
+    }
+
+    public void setDefaultMillis(long defaultMillis) {
+        this.defaultMillis = defaultMillis;
+    }
+}
@@ -0,0 +1,22 @@
+package cn.sh.gateway.streaming;
+
+import com.netflix.zuul.context.RequestContext;
+
+/**
+ * 流式路由上的过滤器默认只能看到请求头，需要检查请求体或响应体的过滤器实现该接口并注册为Bean，
+ * 在转发过程中按块收到数据，数据所在的缓冲区会被复用，不能在回调之外持有
+ * @author sh
+ */
+public interface BodyObserver {
+
+    /**
+     * 是否观察当前请求，在开始转发前调用一次
+     */
+    boolean observes(RequestContext context);
+
+    default void onRequestBody(RequestContext context, byte[] buffer, int offset, int length) {
+    }
+
+    default void onResponseBody(RequestContext context, byte[] buffer, int offset, int length) {
+    }
+}
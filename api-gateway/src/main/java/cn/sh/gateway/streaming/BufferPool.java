@@ -0,0 +1,59 @@
+package cn.sh.gateway.streaming;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小、固定数量的缓冲区池，缓冲区在首次需要时分配，之后反复使用
+ * @author sh
+ */
+public class BufferPool {
+
+    private final BlockingQueue<byte[]> free;
+
+    private final int bufferSize;
+
+    private final int maxBuffers;
+
+    private final AtomicInteger allocated = new AtomicInteger();
+
+    public BufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+        this.free = new ArrayBlockingQueue<>(maxBuffers);
+    }
+
+    /**
+     * @return 缓冲区，等待超时返回null
+     */
+    public byte[] acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        byte[] buffer = free.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        for (int count = allocated.get(); count < maxBuffers; count = allocated.get()) {
+            if (allocated.compareAndSet(count, count + 1)) {
+                return new byte[bufferSize];
+            }
+        }
+        return free.poll(timeout, unit);
+    }
+
+    public void release(byte[] buffer) {
+        free.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getAllocated() {
+        return allocated.get();
+    }
+
+    public int getAvailable() {
+        return free.size() + maxBuffers - allocated.get();
+    }
+}
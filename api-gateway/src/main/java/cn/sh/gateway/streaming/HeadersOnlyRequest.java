@@ -0,0 +1,92 @@
+package cn.sh.gateway.streaming;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式路由上交给Zuul过滤器的请求，只暴露请求头和查询参数
+ * 读取请求体会抛出异常，参数也只从查询字符串解析，避免表单解析或过滤器误读把请求体读入内存，
+ * 已知会读取请求体的过滤器通过gateway.streaming.skipped-filters在流式路由上跳过
+ * @author sh
+ */
+public class HeadersOnlyRequest extends HttpServletRequestWrapper {
+
+    private Map<String, String[]> parameters;
+
+    public HeadersOnlyRequest(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        throw new IllegalStateException("request body of a streaming route is not readable by filters, "
+                + "implement " + BodyObserver.class.getSimpleName() + " instead or add the filter to gateway.streaming.skipped-filters");
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        throw new IllegalStateException("request body of a streaming route is not readable by filters, "
+                + "implement " + BodyObserver.class.getSimpleName() + " instead or add the filter to gateway.streaming.skipped-filters");
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterMap().get(name);
+        return values == null ? null : values[0];
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return getParameterMap().get(name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameters == null) {
+            parameters = Collections.unmodifiableMap(parseQuery(getQueryString()));
+        }
+        return parameters;
+    }
+
+    private static Map<String, String[]> parseQuery(String query) {
+        Map<String, List<String>> values = new LinkedHashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int index = pair.indexOf('=');
+                String name = decode(index < 0 ? pair : pair.substring(0, index));
+                String value = index < 0 ? "" : decode(pair.substring(index + 1));
+                values.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+        }
+        Map<String, String[]> result = new LinkedHashMap<>();
+        values.forEach((name, list) -> result.put(name, list.toArray(new String[0])));
+        return result;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            return value;
+        }
+    }
+}
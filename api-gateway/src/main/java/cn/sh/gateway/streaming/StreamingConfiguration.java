@@ -0,0 +1,89 @@
+package cn.sh.gateway.streaming;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式转发，配置gateway.streaming.routes后生效
+ * @author sh
+ */
+@Configuration
+@ConditionalOnExpression("!'${gateway.streaming.routes:}'.isEmpty()")
+@EnableConfigurationProperties(StreamingProperties.class)
+public class StreamingConfiguration {
+
+    /**
+     * BeanPostProcessor需要在其他Bean之前创建，属性直接从Environment绑定
+     */
+    @Bean
+    public static StreamingFilterGuard streamingFilterGuard(Environment environment) {
+        StreamingProperties properties = Binder.get(environment)
+                .bind("gateway.streaming", StreamingProperties.class)
+                .orElseGet(StreamingProperties::new);
+        return new StreamingFilterGuard(properties);
+    }
+
+    @Bean
+    public BufferPool streamingBufferPool(StreamingProperties properties) {
+        return new BufferPool(properties.getBufferSize(), properties.getMaxBuffers());
+    }
+
+    /**
+     * 转发专用的HttpClient，不解压响应、不跟随重定向、不自动重试，连接数与缓冲区数量一致
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient streamingHttpClient(StreamingProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(properties.getConnectTimeoutMillis())
+                .setSocketTimeout(properties.getReadTimeoutMillis())
+                .build();
+        return HttpClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setMaxConnTotal(properties.getMaxBuffers())
+                .setMaxConnPerRoute(properties.getMaxBuffers())
+                .disableContentCompression()
+                .disableRedirectHandling()
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Bean
+    public FilterRegistrationBean<StreamingDispatchFilter> streamingDispatchFilter(RouteLocator routeLocator,
+                                                                                   StreamingProperties properties,
+                                                                                   ZuulProperties zuulProperties) {
+        FilterRegistrationBean<StreamingDispatchFilter> registration = new FilterRegistrationBean<>(
+                new StreamingDispatchFilter(routeLocator, properties, zuulProperties.getServletPath()));
+        // 先于HiddenHttpMethodFilter等可能读取表单参数的过滤器
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public StreamingRoutingFilter streamingRoutingFilter(StreamingProperties properties,
+                                                         LoadBalancerClient loadBalancerClient,
+                                                         CloseableHttpClient streamingHttpClient,
+                                                         BufferPool streamingBufferPool,
+                                                         ProxyRequestHelper proxyRequestHelper,
+                                                         ObjectProvider<List<BodyObserver>> observers) {
+        return new StreamingRoutingFilter(properties, loadBalancerClient, streamingHttpClient, streamingBufferPool,
+                proxyRequestHelper, observers.getIfAvailable(ArrayList::new));
+    }
+}
@@ -0,0 +1,68 @@
+package cn.sh.gateway.streaming;
+
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 把流式路由的请求转交给ZuulServlet处理
+ * 经DispatcherServlet进入Zuul的请求会被包装成缓冲整个请求体的请求，ZuulServlet路径(zuul.servlet-path)不做缓冲，
+ * 转交时请求被包装为{@link HeadersOnlyRequest}，原始请求保存在请求属性中，只有{@link StreamingRoutingFilter}读取请求体，
+ * 会读取请求体的Zuul过滤器由{@link StreamingFilterGuard}在流式路由上跳过
+ * @author sh
+ */
+public class StreamingDispatchFilter extends OncePerRequestFilter {
+
+    /**
+     * 保存原始请求的请求属性
+     */
+    public static final String RAW_REQUEST_ATTRIBUTE = StreamingDispatchFilter.class.getName() + ".RAW_REQUEST";
+
+    private final RouteLocator routeLocator;
+
+    private final Set<String> routes;
+
+    private final String zuulServletPath;
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public StreamingDispatchFilter(RouteLocator routeLocator, StreamingProperties properties, String zuulServletPath) {
+        this.routeLocator = routeLocator;
+        this.routes = new HashSet<>(properties.getRoutes());
+        this.zuulServletPath = zuulServletPath;
+    }
+
+    /**
+     * 请求是否经由本过滤器转交，即属于流式路由
+     */
+    public static boolean isStreaming(HttpServletRequest request) {
+        return request != null && request.getAttribute(RAW_REQUEST_ATTRIBUTE) != null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        if (routes.isEmpty() || path.startsWith(zuulServletPath + "/")) {
+            return true;
+        }
+        Route route = routeLocator.getMatchingRoute(path);
+        return route == null || !routes.contains(route.getId());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        request.setAttribute(RAW_REQUEST_ATTRIBUTE, request);
+        String path = urlPathHelper.getPathWithinApplication(request);
+        request.getRequestDispatcher(zuulServletPath + path).forward(new HeadersOnlyRequest(request), response);
+    }
+}
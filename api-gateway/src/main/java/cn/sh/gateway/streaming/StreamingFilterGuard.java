@@ -0,0 +1,75 @@
+package cn.sh.gateway.streaming;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 流式路由上跳过会读取请求体的Zuul过滤器，例如对表单请求读取请求体的FormBodyWrapperFilter
+ * 这些过滤器在流式路由上读取{@link HeadersOnlyRequest}的请求体会抛出异常导致500，其他路由上照常执行
+ * 需要检查流式路由请求体的过滤器应实现{@link BodyObserver}，在转发过程中按块收到数据
+ * @author sh
+ */
+public class StreamingFilterGuard implements BeanPostProcessor {
+
+    private final Set<String> skippedFilters;
+
+    public StreamingFilterGuard(StreamingProperties properties) {
+        this.skippedFilters = new HashSet<>(properties.getSkippedFilters());
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ZuulFilter && !(bean instanceof BodyObserver)
+                && skippedFilters.contains(bean.getClass().getSimpleName())) {
+            return new SkippedOnStreamingFilter((ZuulFilter) bean);
+        }
+        return bean;
+    }
+
+    /**
+     * 委托给原过滤器，只在流式路由上不执行，禁用开关仍使用原过滤器的类名
+     */
+    private static final class SkippedOnStreamingFilter extends ZuulFilter {
+
+        private final ZuulFilter delegate;
+
+        private SkippedOnStreamingFilter(ZuulFilter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String filterType() {
+            return delegate.filterType();
+        }
+
+        @Override
+        public int filterOrder() {
+            return delegate.filterOrder();
+        }
+
+        @Override
+        public boolean isFilterDisabled() {
+            return delegate.isFilterDisabled();
+        }
+
+        @Override
+        public boolean shouldFilter() {
+            return !StreamingDispatchFilter.isStreaming(RequestContext.getCurrentContext().getRequest())
+                    && delegate.shouldFilter();
+        }
+
+        @Override
+        public Object run() {
+            return delegate.run();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
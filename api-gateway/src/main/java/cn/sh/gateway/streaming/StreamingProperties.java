@@ -0,0 +1,104 @@
+package cn.sh.gateway.streaming;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 流式转发配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "gateway.streaming")
+public class StreamingProperties {
+
+    /**
+     * 使用流式转发的路由，取值为zuul.routes下的路由名，例如api-a
+     */
+    private List<String> routes = new ArrayList<>();
+
+    /**
+     * 在流式路由上跳过的Zuul过滤器类名(不含包名)，这些过滤器会读取请求体
+     * 需要检查流式路由请求体的过滤器不应加入此列表，而是实现{@link BodyObserver}显式接收请求体
+     */
+    private List<String> skippedFilters = new ArrayList<>(Collections.singletonList("FormBodyWrapperFilter"));
+
+    /**
+     * 每个缓冲区的大小
+     */
+    private int bufferSize = 16 * 1024;
+
+    /**
+     * 缓冲区数量，每个正在转发的请求占用一个，决定了流式转发的最大并发数和占用的内存上限
+     */
+    private int maxBuffers = 256;
+
+    /**
+     * 缓冲区用完时等待的时间，超时返回503
+     */
+    private long acquireTimeoutMillis = 1000;
+
+    private int connectTimeoutMillis = 1000;
+
+    /**
+     * 两次读取之间的最长间隔，而不是整个请求的时限，大文件传输时间不受限制
+     */
+    private int readTimeoutMillis = 60000;
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public List<String> getSkippedFilters() {
+        return skippedFilters;
+    }
+
+    public void setSkippedFilters(List<String> skippedFilters) {
+        this.skippedFilters = skippedFilters;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    public void setMaxBuffers(int maxBuffers) {
+        this.maxBuffers = maxBuffers;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+}
@@ -0,0 +1,257 @@
+package cn.sh.gateway.streaming;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRequestHelper;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.MultiValueMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.PROXY_KEY;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.REQUEST_URI_KEY;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.RIBBON_ROUTING_FILTER_ORDER;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.ROUTE_TYPE;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.SERVICE_ID_KEY;
+
+/**
+ * 流式路由的转发过滤器，排在RibbonRoutingFilter之前
+ * 请求体和响应体都通过池化的固定大小缓冲区边读边写，不在内存中保留完整内容；
+ * 客户端以chunked发送的请求仍以chunked转发，带Content-Length的请求和响应保留原长度
+ * 不经过Hystrix和重试，大文件的传输时间不受命令超时限制，重试也需要缓冲整个请求体
+ * 转发完成后关闭sendZuulResponse，后续的Ribbon路由和SendResponseFilter不再处理该请求
+ * @author sh
+ */
+public class StreamingRoutingFilter extends ZuulFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingRoutingFilter.class);
+
+    private static final String CHUNKED = "chunked";
+
+    private final Set<String> routes;
+
+    private final LoadBalancerClient loadBalancerClient;
+
+    private final CloseableHttpClient httpClient;
+
+    private final BufferPool bufferPool;
+
+    private final ProxyRequestHelper proxyRequestHelper;
+
+    private final List<BodyObserver> observers;
+
+    private final long acquireTimeoutMillis;
+
+    public StreamingRoutingFilter(StreamingProperties properties, LoadBalancerClient loadBalancerClient,
+                                  CloseableHttpClient httpClient, BufferPool bufferPool,
+                                  ProxyRequestHelper proxyRequestHelper, List<BodyObserver> observers) {
+        this.routes = new HashSet<>(properties.getRoutes());
+        this.loadBalancerClient = loadBalancerClient;
+        this.httpClient = httpClient;
+        this.bufferPool = bufferPool;
+        this.proxyRequestHelper = proxyRequestHelper;
+        this.observers = observers;
+        this.acquireTimeoutMillis = properties.getAcquireTimeoutMillis();
+    }
+
+    @Override
+    public String filterType() {
+        return ROUTE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return RIBBON_ROUTING_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        RequestContext context = RequestContext.getCurrentContext();
+        return context.sendZuulResponse() && context.get(SERVICE_ID_KEY) != null
+                && routes.contains(context.get(PROXY_KEY))
+                && StreamingDispatchFilter.isStreaming(context.getRequest());
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext context = RequestContext.getCurrentContext();
+        String serviceId = (String) context.get(SERVICE_ID_KEY);
+        ServiceInstance instance = loadBalancerClient.choose(serviceId);
+        if (instance == null) {
+            throw new ZuulException("no instance available", HttpStatus.SERVICE_UNAVAILABLE.value(), serviceId);
+        }
+        byte[] buffer;
+        try {
+            buffer = bufferPool.acquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZuulException(e, HttpStatus.SERVICE_UNAVAILABLE.value(), "interrupted");
+        }
+        if (buffer == null) {
+            throw new ZuulException("streaming buffers exhausted", HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "buffers exhausted");
+        }
+        try {
+            forward(context, instance, buffer);
+        } catch (IOException e) {
+            if (context.getResponse().isCommitted()) {
+                // 响应已经开始写出，无法再返回错误状态，只能中断连接
+                logger.warn("streaming aborted, service:{}, error:{}", serviceId, e.toString());
+                context.setSendZuulResponse(false);
+                return null;
+            }
+            throw new ZuulException(e, HttpStatus.BAD_GATEWAY.value(), e.getMessage());
+        } finally {
+            bufferPool.release(buffer);
+        }
+        // 已经写出响应，跳过后续的路由过滤器和SendResponseFilter
+        context.setSendZuulResponse(false);
+        return null;
+    }
+
+    private void forward(RequestContext context, ServiceInstance instance, byte[] buffer) throws IOException {
+        HttpServletRequest request = context.getRequest();
+        HttpServletRequest rawRequest = (HttpServletRequest) request
+                .getAttribute(StreamingDispatchFilter.RAW_REQUEST_ATTRIBUTE);
+        List<BodyObserver> active = activeObservers(context);
+
+        String uri = instance.getUri().toString() + context.get(REQUEST_URI_KEY)
+                + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        RequestBuilder builder = RequestBuilder.create(request.getMethod()).setUri(uri);
+        MultiValueMap<String, String> headers = proxyRequestHelper.buildZuulRequestHeaders(request);
+        headers.forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        boolean chunked = isChunked(request.getHeader(HttpHeaders.TRANSFER_ENCODING));
+        long contentLength = request.getContentLengthLong();
+        if (chunked || contentLength > 0) {
+            builder.setEntity(new RequestBodyEntity(rawRequest.getInputStream(), chunked ? -1 : contentLength,
+                    request.getContentType(), buffer, context, active));
+        }
+
+        try (CloseableHttpResponse upstream = httpClient.execute(builder.build())) {
+            HttpServletResponse response = context.getResponse();
+            int status = upstream.getStatusLine().getStatusCode();
+            context.setResponseStatusCode(status);
+            response.setStatus(status);
+            for (Header header : upstream.getAllHeaders()) {
+                if (proxyRequestHelper.isIncludedHeader(header.getName())) {
+                    response.addHeader(header.getName(), header.getValue());
+                }
+            }
+            HttpEntity entity = upstream.getEntity();
+            if (entity == null) {
+                return;
+            }
+            // 上游未使用chunked时保留Content-Length，否则由容器以chunked写出
+            if (!isChunked(header(upstream, HttpHeaders.TRANSFER_ENCODING)) && entity.getContentLength() >= 0) {
+                response.setContentLengthLong(entity.getContentLength());
+            }
+            try (InputStream in = entity.getContent()) {
+                OutputStream out = response.getOutputStream();
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    for (BodyObserver observer : active) {
+                        observer.onResponseBody(context, buffer, 0, read);
+                    }
+                    out.write(buffer, 0, read);
+                }
+                out.flush();
+            }
+        }
+    }
+
+    private List<BodyObserver> activeObservers(RequestContext context) {
+        List<BodyObserver> active = new ArrayList<>(0);
+        for (BodyObserver observer : observers) {
+            if (observer.observes(context)) {
+                active.add(observer);
+            }
+        }
+        return active;
+    }
+
+    private static String header(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    private static boolean isChunked(String transferEncoding) {
+        return transferEncoding != null && transferEncoding.toLowerCase().contains(CHUNKED);
+    }
+
+    /**
+     * 边读客户端请求体边写给上游，长度为-1时以chunked发送
+     */
+    private static final class RequestBodyEntity extends AbstractHttpEntity {
+
+        private final InputStream in;
+
+        private final long length;
+
+        private final byte[] buffer;
+
+        private final RequestContext context;
+
+        private final List<BodyObserver> observers;
+
+        private RequestBodyEntity(InputStream in, long length, String contentType, byte[] buffer,
+                                  RequestContext context, List<BodyObserver> observers) {
+            this.in = in;
+            this.length = length;
+            this.buffer = buffer;
+            this.context = context;
+            this.observers = observers;
+            setContentType(contentType);
+            setChunked(length < 0);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return in;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                for (BodyObserver observer : observers) {
+                    observer.onRequestBody(context, buffer, 0, read);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+    }
+}
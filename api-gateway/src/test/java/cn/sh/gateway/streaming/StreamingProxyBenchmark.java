@@ -0,0 +1,198 @@
+package cn.sh.gateway.streaming;
+
+import cn.sh.gateway.StartApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 经网关流式转发数GB的请求体和响应体，验证网关内存不随请求体大小增长
+ * 同一进程内启动上游桩服务(JDK HttpServer)和网关，网关不连接注册中心，通过listOfServers指向桩服务
+ * 依次执行chunked上传、定长上传和chunked下载，记录每次GC后堆的最大占用，超过基线加上限时以非0退出
+ * 运行: 以main方法启动并限制堆大小，例如-Xmx256m，参数为每次传输的GB数，默认4
+ * @author sh
+ */
+public class StreamingProxyBenchmark {
+
+    private static final int CHUNK = 64 * 1024;
+
+    /**
+     * 允许的堆增长，远小于传输的数据量
+     */
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        long size = (long) (Double.parseDouble(args.length > 0 ? args[0] : "4") * 1024 * 1024 * 1024);
+        HttpServer upstream = startUpstream();
+        int upstreamPort = upstream.getAddress().getPort();
+        ConfigurableApplicationContext gateway = SpringApplication.run(StartApplication.class,
+                "--server.port=0",
+                "--eureka.client.enabled=false",
+                "--ribbon.eureka.enabled=false",
+                "--hello-service.ribbon.listOfServers=localhost:" + upstreamPort,
+                "--logging.level.cn.sh.gateway=WARN");
+        String base = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") + "/api-a";
+
+        System.gc();
+        long baseline = heapAfterGc();
+        AtomicLong peak = new AtomicLong(baseline);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peak.accumulateAndGet(heapAfterGc(), Math::max),
+                100, 100, TimeUnit.MILLISECONDS);
+
+        int exitCode = 0;
+        try {
+            exitCode |= check("chunked upload", size, upload(base, size, true));
+            exitCode |= check("fixed-length upload", size, upload(base, size, false));
+            exitCode |= check("chunked download", size, download(base, size));
+        } finally {
+            sampler.shutdownNow();
+            SpringApplication.exit(gateway);
+            upstream.stop(0);
+        }
+        long growth = peak.get() - baseline;
+        System.out.printf("heap after gc: baseline=%dMB, peak=%dMB, growth=%dMB, max heap=%dMB%n",
+                baseline >> 20, peak.get() >> 20, growth >> 20, Runtime.getRuntime().maxMemory() >> 20);
+        if (growth > MAX_HEAP_GROWTH) {
+            System.out.println("FAILED: gateway heap grew with body size");
+            exitCode = 1;
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * 上游桩: /upload读取并丢弃请求体，返回收到的字节数；/download?size=n以chunked返回n个字节
+     */
+    private static HttpServer startUpstream() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/upload", exchange -> {
+            long received = 0;
+            byte[] buffer = new byte[CHUNK];
+            try (InputStream in = exchange.getRequestBody()) {
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    received += read;
+                }
+            }
+            byte[] body = String.valueOf(received).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/download", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            long size = Long.parseLong(query.replaceAll(".*size=(\\d+).*", "$1"));
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, size);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static long upload(String base, long size, boolean chunked) throws IOException {
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + "/upload?accessToken=bench").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        if (chunked) {
+            connection.setChunkedStreamingMode(CHUNK);
+        } else {
+            connection.setFixedLengthStreamingMode(size);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            write(out, size);
+        }
+        long received;
+        try (InputStream in = connection.getInputStream()) {
+            received = Long.parseLong(new String(readAll(in), StandardCharsets.UTF_8).trim());
+        }
+        report(chunked ? "chunked upload" : "fixed-length upload", size, start);
+        return received;
+    }
+
+    private static long download(String base, long size) throws IOException {
+        long start = System.nanoTime();
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + "/download?accessToken=bench&size=" + size)
+                .openConnection();
+        long received = 0;
+        byte[] buffer = new byte[CHUNK];
+        try (InputStream in = connection.getInputStream()) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                received += read;
+            }
+        }
+        System.out.println("download transfer-encoding: " + connection.getHeaderField("Transfer-Encoding"));
+        report("chunked download", size, start);
+        return received;
+    }
+
+    private static void write(OutputStream out, long size) throws IOException {
+        byte[] chunk = new byte[CHUNK];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+        for (long remaining = size; remaining > 0; ) {
+            int length = (int) Math.min(chunk.length, remaining);
+            out.write(chunk, 0, length);
+            remaining -= length;
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        for (int read; (read = in.read(buffer)) != -1; ) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static int check(String name, long expected, long actual) {
+        if (expected != actual) {
+            System.out.printf("FAILED: %s expected %d bytes, received %d%n", name, expected, actual);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void report(String name, long size, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%-20s %6.2fGB in %6.1fs, %7.1fMB/s%n", name, size / 1024.0 / 1024 / 1024, seconds,
+                size / 1024.0 / 1024 / seconds);
+    }
+
+    /**
+     * 各堆内存池最近一次GC后的占用之和，不受尚未回收的临时对象影响
+     */
+    private static long heapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,230 @@
+package cn.sh.gateway.streaming;
+
+import cn.sh.gateway.StartApplication;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 经网关流式转发生成的大请求体，验证缓冲区占用不超过max-buffers、堆占用不随请求体大小增长，
+ * 超过2GB的Content-Length原样转发，以及表单请求不会因FormBodyWrapperFilter读取请求体而失败
+ * 测试进程以-Xmx256m运行(见pom.xml中surefire的argLine)，任何按请求体大小缓冲的实现都会内存溢出
+ * 同一进程内启动上游桩服务(JDK HttpServer)和网关，网关不连接注册中心，通过listOfServers指向桩服务
+ * @author sh
+ */
+public class StreamingRoutingFilterTest {
+
+    private static final int CHUNK = 64 * 1024;
+
+    private static final int MAX_BUFFERS = 4;
+
+    private static final long BODY_SIZE = 128L * 1024 * 1024;
+
+    /**
+     * 单个固定长度请求体，超过int范围，用于发现按int处理长度的实现
+     */
+    private static final long LARGE_BODY_SIZE = 2560L * 1024 * 1024;
+
+    /**
+     * 允许的堆增长，远小于传输的数据量
+     */
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    private static HttpServer upstream;
+
+    private static ConfigurableApplicationContext gateway;
+
+    private static String base;
+
+    private static final AtomicReference<String> upstreamContentLength = new AtomicReference<>();
+
+    @BeforeClass
+    public static void start() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.createContext("/upload", exchange -> {
+            upstreamContentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+            long received = 0;
+            byte[] buffer = new byte[CHUNK];
+            try (InputStream in = exchange.getRequestBody()) {
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    received += read;
+                }
+            }
+            byte[] body = String.valueOf(received).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.start();
+        gateway = SpringApplication.run(StartApplication.class,
+                "--server.port=0",
+                "--eureka.client.enabled=false",
+                "--ribbon.eureka.enabled=false",
+                "--hello-service.ribbon.listOfServers=localhost:" + upstream.getAddress().getPort(),
+                "--gateway.streaming.max-buffers=" + MAX_BUFFERS,
+                "--gateway.streaming.acquire-timeout-millis=60000",
+                "--logging.level.cn.sh.gateway=WARN");
+        base = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port") + "/api-a";
+    }
+
+    @AfterClass
+    public static void stop() {
+        if (gateway != null) {
+            SpringApplication.exit(gateway);
+        }
+        if (upstream != null) {
+            upstream.stop(0);
+        }
+    }
+
+    @Test
+    public void formBodyIsStreamedInsteadOfParsed() throws IOException {
+        assertEquals(BODY_SIZE, upload("application/x-www-form-urlencoded", BODY_SIZE));
+    }
+
+    @Test
+    public void fixedLengthBodyLargerThan2GbIsStreamed() throws Exception {
+        System.gc();
+        long baseline = heapAfterGc();
+        AtomicLong peakHeap = new AtomicLong(baseline);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(heapAfterGc(), Math::max),
+                0, 10, TimeUnit.MILLISECONDS);
+        try {
+            assertEquals(LARGE_BODY_SIZE, upload("application/octet-stream", LARGE_BODY_SIZE, false));
+        } finally {
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        assertEquals(String.valueOf(LARGE_BODY_SIZE), upstreamContentLength.get());
+        long growth = peakHeap.get() - baseline;
+        assertTrue("heap grew by " + (growth >> 20) + "MB while streaming " + (LARGE_BODY_SIZE >> 20) + "MB",
+                growth <= MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    public void concurrentUploadsStayWithinBuffersAndHeap() throws Exception {
+        BufferPool pool = gateway.getBean(BufferPool.class);
+        int uploads = MAX_BUFFERS * 2;
+
+        System.gc();
+        long baseline = heapAfterGc();
+        AtomicLong peakHeap = new AtomicLong(baseline);
+        AtomicInteger peakAllocated = new AtomicInteger();
+        AtomicInteger minAvailable = new AtomicInteger(Integer.MAX_VALUE);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakHeap.accumulateAndGet(heapAfterGc(), Math::max);
+            peakAllocated.accumulateAndGet(pool.getAllocated(), Math::max);
+            minAvailable.accumulateAndGet(pool.getAvailable(), Math::min);
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(uploads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < uploads; i++) {
+                results.add(clients.submit(() -> upload("application/octet-stream", BODY_SIZE)));
+            }
+            for (Future<Long> result : results) {
+                assertEquals(BODY_SIZE, (long) result.get(5, TimeUnit.MINUTES));
+            }
+        } finally {
+            clients.shutdownNow();
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+        }
+
+        assertTrue("buffers allocated: " + peakAllocated.get(), peakAllocated.get() <= MAX_BUFFERS);
+        assertTrue("buffers available: " + minAvailable.get(), minAvailable.get() >= 0);
+        long growth = peakHeap.get() - baseline;
+        assertTrue("heap grew by " + (growth >> 20) + "MB while streaming " + (uploads * BODY_SIZE >> 20) + "MB",
+                growth <= MAX_HEAP_GROWTH);
+    }
+
+    private static long upload(String contentType, long size) throws IOException {
+        return upload(contentType, size, true);
+    }
+
+    /**
+     * 上传size个生成的字节
+     * @param chunked true以chunked上传，false带Content-Length上传
+     * @return 上游收到的字节数
+     */
+    private static long upload(String contentType, long size, boolean chunked) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(base + "/upload?accessToken=test").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        if (chunked) {
+            connection.setChunkedStreamingMode(CHUNK);
+        } else {
+            connection.setFixedLengthStreamingMode(size);
+        }
+        byte[] chunk = new byte[CHUNK];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) ('a' + i % 26);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            for (long remaining = size; remaining > 0; ) {
+                int length = (int) Math.min(chunk.length, remaining);
+                out.write(chunk, 0, length);
+                remaining -= length;
+            }
+        }
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                body.write(buffer, 0, read);
+            }
+            return Long.parseLong(new String(body.toByteArray(), StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    /**
+     * 各堆内存池最近一次GC后的占用之和，不受尚未回收的临时对象影响
+     */
+    private static long heapAfterGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
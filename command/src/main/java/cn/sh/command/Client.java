@@ -1,11 +1,52 @@
 package cn.sh.command;
 
+import cn.sh.command.bus.BackpressurePolicy;
+import cn.sh.command.bus.CommandBus;
+import cn.sh.command.bus.ReciverBatchHandler;
+import cn.sh.command.journal.CommandJournal;
+import cn.sh.command.journal.CommandSerializer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class Client {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         Reciver reciver = new Reciver();
         Command command = new ConcreteCommand(reciver);
         Invoker invoker = new Invoker(command);
         invoker.action(); //客户端通过调用者来执行命令
+
+        //通过命令总线批量执行命令
+        CommandBus commandBus = new CommandBus(1024, 2, 64, BackpressurePolicy.BLOCK);
+        commandBus.register(ConcreteCommand.class, new ReciverBatchHandler());
+        Invoker busInvoker = new Invoker(command, commandBus);
+        for (int i = 0; i < 10000; i++) {
+            busInvoker.action();
+        }
+        commandBus.shutdown();
+        commandBus.metrics().forEach((type, metrics) -> System.out.println(type.getSimpleName() + ": " + metrics));
+
+        //执行前先写入命令日志，重启后重放检查点之后的命令
+        Path directory = Files.createTempDirectory("command-journal");
+        CommandSerializer serializer = new CommandSerializer() {
+            @Override
+            public byte[] serialize(Command c) {
+                return new byte[0];
+            }
+
+            @Override
+            public Command deserialize(byte[] data) {
+                return new ConcreteCommand(reciver);
+            }
+        };
+        try (CommandJournal journal = new CommandJournal(directory, 1 << 20, serializer, 100)) {
+            new Invoker(command, journal).action();
+        }
+        try (CommandJournal journal = new CommandJournal(directory, 1 << 20, serializer, 100)) {
+            long replayed = journal.replay(Command::execute);
+            journal.checkpoint(journal.getDurableSeq());
+            System.out.println("replayed commands: " + replayed);
+        }
     }
 }
@@ -16,4 +16,8 @@ public class ConcreteCommand implements Command {
     public void execute() {
         this.reciver.action();
     }
+
+    public Reciver getReciver() {
+        return reciver;
+    }
 }
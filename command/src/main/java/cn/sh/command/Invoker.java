@@ -1,5 +1,8 @@
 package cn.sh.command;
 
+import cn.sh.command.bus.CommandBus;
+import cn.sh.command.journal.CommandJournal;
+
 /**
  * 客户端调用者
  */
@@ -7,11 +10,65 @@ public class Invoker {
 
     private Command command;
 
+    private CommandBus commandBus;
+
+    private CommandJournal commandJournal;
+
     public Invoker(Command command) {
         this.command = command;
     }
 
+    /**
+     * 通过命令总线异步执行命令
+     */
+    public Invoker(Command command, CommandBus commandBus) {
+        this.command = command;
+        this.commandBus = commandBus;
+    }
+
+    /**
+     * 执行前先将命令写入日志，进程退出后可以重放
+     */
+    public Invoker(Command command, CommandJournal commandJournal) {
+        this.command = command;
+        this.commandJournal = commandJournal;
+    }
+
+    public Invoker(Command command, CommandBus commandBus, CommandJournal commandJournal) {
+        this.command = command;
+        this.commandBus = commandBus;
+        this.commandJournal = commandJournal;
+    }
+
+    /**
+     * 有命令日志时，命令执行后(同步执行或由命令总线执行)确认对应序号，重放时不再重复执行
+     * 被命令总线丢弃的命令不会执行，同样确认
+     */
     public void action() {
-        this.command.execute();
+        long seq = journal();
+        Runnable ack = commandJournal == null ? null : () -> commandJournal.ack(seq);
+        if (commandBus == null) {
+            try {
+                this.command.execute();
+            } finally {
+                if (ack != null) {
+                    ack.run();
+                }
+            }
+        } else if (!commandBus.submit(this.command, ack) && ack != null) {
+            ack.run();
+        }
+    }
+
+    private long journal() {
+        if (commandJournal == null) {
+            return 0;
+        }
+        try {
+            return commandJournal.append(this.command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while journaling command", e);
+        }
     }
 }
@@ -1,5 +1,7 @@
 package cn.sh.command;
 
+import java.util.List;
+
 /**
  * 接受者
  * @author sh
@@ -9,4 +11,13 @@ public class Reciver {
     public void action() {
         //真正的业务逻辑
     }
+
+    /**
+     * 批量执行，由命令总线一次交给接受者的多个命令，可以覆盖该方法合并处理
+     */
+    public void batchAction(List<? extends Command> commands) {
+        for (int i = 0; i < commands.size(); i++) {
+            action();
+        }
+    }
 }
@@ -0,0 +1,23 @@
+package cn.sh.command.bus;
+
+/**
+ * 队列已满时的处理策略
+ * @author sh
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * 阻塞提交线程直到队列有空位
+     */
+    BLOCK,
+
+    /**
+     * 丢弃该命令
+     */
+    DROP,
+
+    /**
+     * 由提交线程直接执行该命令
+     */
+    CALLER_RUNS
+}
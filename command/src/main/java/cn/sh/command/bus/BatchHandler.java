@@ -0,0 +1,14 @@
+package cn.sh.command.bus;
+
+import cn.sh.command.Command;
+
+import java.util.List;
+
+/**
+ * 批量处理同一类型的命令，未注册时逐个调用{@link Command#execute()}
+ * @author sh
+ */
+public interface BatchHandler<C extends Command> {
+
+    void handle(List<C> commands);
+}
@@ -0,0 +1,285 @@
+package cn.sh.command.bus;
+
+import cn.sh.command.Command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 进程内命令总线
+ * 命令提交到有界无锁队列，由工作线程批量取出执行，连续的同类型命令作为一批交给{@link BatchHandler}
+ * @author sh
+ */
+public class CommandBus {
+
+    private static final Logger logger = Logger.getLogger(CommandBus.class.getName());
+
+    private static final int SPIN_TRIES = 100;
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final BoundedQueue<Envelope> queue;
+
+    private final int batchSize;
+
+    private final BackpressurePolicy policy;
+
+    private final Map<Class<?>, BatchHandler<?>> handlers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, CommandMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder callerRuns = new LongAdder();
+
+    private final List<Thread> workers;
+
+    private volatile boolean running = true;
+
+    /**
+     * 已通过running检查、尚未完成入队的submit调用数，shutdown等待其归零后再做最后一次清空
+     */
+    private final AtomicInteger submitting = new AtomicInteger();
+
+    /**
+     * @param capacity 队列容量
+     * @param workerCount 工作线程数
+     * @param batchSize 每次最多取出的命令数
+     * @param policy 队列已满时的处理策略
+     */
+    public CommandBus(int capacity, int workerCount, int batchSize, BackpressurePolicy policy) {
+        this.queue = new BoundedQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.policy = policy;
+        List<Thread> threads = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(this::work, "command-bus-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        this.workers = Collections.unmodifiableList(threads);
+        threads.forEach(Thread::start);
+    }
+
+    public <C extends Command> void register(Class<C> type, BatchHandler<C> handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * 提交命令
+     * @return 命令被丢弃时返回false
+     */
+    public boolean submit(Command command) {
+        return submit(command, null);
+    }
+
+    /**
+     * 提交命令，命令执行后(无论成功与否)在执行线程上回调onExecuted，命令被丢弃时不回调
+     * @return 命令被丢弃时返回false
+     */
+    public boolean submit(Command command, Runnable onExecuted) {
+        submitting.incrementAndGet();
+        try {
+            if (!running) {
+                throw new IllegalStateException("command bus is shutdown");
+            }
+            return doSubmit(command, onExecuted);
+        } finally {
+            submitting.decrementAndGet();
+        }
+    }
+
+    private boolean doSubmit(Command command, Runnable onExecuted) {
+        Envelope envelope = new Envelope(command, onExecuted, System.nanoTime());
+        if (queue.offer(envelope)) {
+            return true;
+        }
+        switch (policy) {
+            case DROP:
+                dropped.increment();
+                return false;
+            case CALLER_RUNS:
+                callerRuns.increment();
+                List<Command> single = Collections.singletonList(command);
+                execute(command.getClass(), single, 0, 0);
+                completed(envelope);
+                return true;
+            case BLOCK:
+            default:
+                int tries = 0;
+                while (!queue.offer(envelope)) {
+                    if (!running) {
+                        throw new IllegalStateException("command bus is shutdown");
+                    }
+                    backoff(tries++);
+                }
+                return true;
+        }
+    }
+
+    /**
+     * 停止接收命令，等待队列中剩余的命令执行完成
+     * 工作线程退出后，与shutdown并发的submit仍可能刚好完成入队，因此等这些submit返回后在当前线程再清空一次队列
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+            worker.join();
+        }
+        int tries = 0;
+        while (submitting.get() > 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            backoff(tries++);
+        }
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        List<Command> run = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            dispatch(batch, run);
+            batch.clear();
+        }
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    public int queueCapacity() {
+        return queue.capacity();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getCallerRuns() {
+        return callerRuns.sum();
+    }
+
+    public Map<Class<?>, CommandMetrics> metrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private void work() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        List<Command> run = new ArrayList<>(batchSize);
+        int idle = 0;
+        while (running || queue.size() > 0) {
+            if (queue.drainTo(batch, batchSize) == 0) {
+                backoff(idle++);
+                continue;
+            }
+            idle = 0;
+            dispatch(batch, run);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 按顺序把连续的同类型命令作为一批执行
+     */
+    private void dispatch(List<Envelope> batch, List<Command> run) {
+        long now = System.nanoTime();
+        Class<?> runType = null;
+        int runStart = 0;
+        long totalQueue = 0;
+        long maxQueue = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Envelope envelope = batch.get(i);
+            Class<?> type = envelope.command.getClass();
+            if (type != runType && !run.isEmpty()) {
+                execute(runType, run, totalQueue, maxQueue);
+                completed(batch, runStart, i);
+                run.clear();
+                runStart = i;
+                totalQueue = 0;
+                maxQueue = 0;
+            }
+            runType = type;
+            long waited = now - envelope.enqueuedAt;
+            totalQueue += waited;
+            maxQueue = Math.max(maxQueue, waited);
+            run.add(envelope.command);
+        }
+        if (!run.isEmpty()) {
+            execute(runType, run, totalQueue, maxQueue);
+            completed(batch, runStart, batch.size());
+            run.clear();
+        }
+    }
+
+    private static void completed(List<Envelope> batch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            completed(batch.get(i));
+        }
+    }
+
+    private static void completed(Envelope envelope) {
+        if (envelope.onExecuted == null) {
+            return;
+        }
+        try {
+            envelope.onExecuted.run();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "command completion callback failed", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void execute(Class<?> type, List<Command> commands, long totalQueue, long maxQueue) {
+        BatchHandler<Command> handler = (BatchHandler<Command>) handlers.get(type);
+        long start = System.nanoTime();
+        boolean success = true;
+        try {
+            if (handler != null) {
+                handler.handle(commands);
+            } else {
+                for (Command command : commands) {
+                    command.execute();
+                }
+            }
+        } catch (RuntimeException e) {
+            success = false;
+            logger.log(Level.WARNING, "command batch failed, type:" + type.getName(), e);
+        }
+        metrics.computeIfAbsent(type, key -> new CommandMetrics())
+                .recordBatch(commands.size(), totalQueue, maxQueue, System.nanoTime() - start, success);
+    }
+
+    private static void backoff(int tries) {
+        if (tries < SPIN_TRIES) {
+            return;
+        }
+        if (tries < SPIN_TRIES * 2) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private static final class Envelope {
+
+        private final Command command;
+
+        private final Runnable onExecuted;
+
+        private final long enqueuedAt;
+
+        private Envelope(Command command, Runnable onExecuted, long enqueuedAt) {
+            this.command = command;
+            this.onExecuted = onExecuted;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cn.sh.command.bus;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个命令类型的统计信息
+ * 排队耗时为提交到开始执行，执行耗时为所在批次的执行时间
+ * @author sh
+ */
+public class CommandMetrics {
+
+    private final LongAdder executed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder queueNanos = new LongAdder();
+
+    private final LongAdder executeNanos = new LongAdder();
+
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder batches = new LongAdder();
+
+    void recordBatch(int size, long totalQueueNanos, long maxQueue, long executeTime, boolean success) {
+        executed.add(size);
+        if (!success) {
+            failed.add(size);
+        }
+        queueNanos.add(totalQueueNanos);
+        maxQueueNanos.accumulate(maxQueue);
+        executeNanos.add(executeTime);
+        batches.increment();
+    }
+
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public double getAvgBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) executed.sum() / count;
+    }
+
+    public double getAvgQueueMicros() {
+        long count = executed.sum();
+        return count == 0 ? 0 : queueNanos.sum() / 1000.0 / count;
+    }
+
+    public double getMaxQueueMicros() {
+        return maxQueueNanos.get() / 1000.0;
+    }
+
+    public double getAvgExecuteMicros() {
+        long count = executed.sum();
+        return count == 0 ? 0 : executeNanos.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("executed=%d, failed=%d, avgBatch=%.1f, avgQueue=%.1fus, maxQueue=%.1fus, avgExecute=%.2fus",
+                getExecuted(), getFailed(), getAvgBatchSize(), getAvgQueueMicros(), getMaxQueueMicros(),
+                getAvgExecuteMicros());
+    }
+}
@@ -0,0 +1,24 @@
+package cn.sh.command.bus;
+
+import cn.sh.command.ConcreteCommand;
+import cn.sh.command.Reciver;
+
+import java.util.List;
+
+/**
+ * 将一批ConcreteCommand按接受者分组，交给{@link Reciver#batchAction(List)}处理
+ * @author sh
+ */
+public class ReciverBatchHandler implements BatchHandler<ConcreteCommand> {
+
+    @Override
+    public void handle(List<ConcreteCommand> commands) {
+        int start = 0;
+        for (int i = 1; i <= commands.size(); i++) {
+            if (i == commands.size() || commands.get(i).getReciver() != commands.get(start).getReciver()) {
+                commands.get(start).getReciver().batchAction(commands.subList(start, i));
+                start = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package cn.sh.command.journal;
+
+import cn.sh.command.Command;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 命令日志
+ * 命令在执行前追加到内存映射的段文件中，由后台线程合并刷盘，同一批次内的命令共享一次fsync
+ * 命令执行后通过{@link #ack(long)}确认，确认只更新内存中的序号，由刷盘线程定期将连续确认的最大序号写入检查点
+ * 启动时从最后一个检查点之后重放，检查点之前的段文件可以被清理
+ * 刷盘线程失败后，等待刷盘和追加命令的调用方都会收到该异常，不会无限等待
+ * @author sh
+ */
+public class CommandJournal implements AutoCloseable {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 1000;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final CommandSerializer serializer;
+
+    private final long groupCommitNanos;
+
+    private final long checkpointIntervalNanos;
+
+    private final Object appendLock = new Object();
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final List<Segment> dirty = new ArrayList<>();
+
+    private Segment current;
+
+    private int position;
+
+    private volatile long writtenSeq;
+
+    private volatile long durableSeq;
+
+    private volatile long checkpointSeq;
+
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    private final Object ackLock = new Object();
+
+    /**
+     * 已确认且之前的序号全部确认过的最大序号
+     */
+    private long ackedSeq;
+
+    /**
+     * 乱序到达、还不能推进ackedSeq的确认
+     */
+    private final TreeSet<Long> pendingAcks = new TreeSet<>();
+
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    private final Condition pending = commitLock.newCondition();
+
+    private final Condition durable = commitLock.newCondition();
+
+    private final AtomicLong flushes = new AtomicLong();
+
+    private final Thread flusher;
+
+    private volatile boolean running = true;
+
+    /**
+     * 刷盘线程的异常，设置后不再接受新命令
+     */
+    private volatile Throwable failure;
+
+    private long lastCheckpointNanos = System.nanoTime();
+
+    /**
+     * @param directory 日志目录
+     * @param segmentSize 段文件大小
+     * @param serializer 命令序列化方式
+     * @param groupCommitMicros 每次刷盘前等待更多命令加入的时间，0表示有命令就立即刷盘
+     */
+    public CommandJournal(Path directory, int segmentSize, CommandSerializer serializer, long groupCommitMicros)
+            throws IOException {
+        this(directory, segmentSize, serializer, groupCommitMicros, DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param directory 日志目录
+     * @param segmentSize 段文件大小
+     * @param serializer 命令序列化方式
+     * @param groupCommitMicros 每次刷盘前等待更多命令加入的时间，0表示有命令就立即刷盘
+     * @param checkpointIntervalMillis 写检查点的最小间隔，进程崩溃后最多重放这段时间内已确认的命令
+     */
+    public CommandJournal(Path directory, int segmentSize, CommandSerializer serializer, long groupCommitMicros,
+                          long checkpointIntervalMillis) throws IOException {
+        if (checkpointIntervalMillis <= 0) {
+            throw new IllegalArgumentException("checkpointIntervalMillis must be positive");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.serializer = serializer;
+        this.groupCommitNanos = TimeUnit.MICROSECONDS.toNanos(groupCommitMicros);
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+        Files.createDirectories(directory);
+        this.checkpointSeq = readCheckpoint();
+        recover();
+        this.flusher = new Thread(this::flushLoop, "command-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 追加命令并等待其刷盘
+     * @return 命令的序号
+     */
+    public long append(Command command) throws InterruptedException {
+        long seq = write(command);
+        awaitDurable(seq);
+        return seq;
+    }
+
+    /**
+     * 只追加命令不等待刷盘，批量写入时可以在最后一条命令上调用{@link #awaitDurable(long)}
+     * @return 命令的序号
+     */
+    public long write(Command command) {
+        byte[] payload = serializer.serialize(command);
+        synchronized (appendLock) {
+            checkFailure();
+            if (!running) {
+                throw new IllegalStateException("command journal is closed");
+            }
+            long seq = writtenSeq + 1;
+            if (!current.fits(position, payload.length)) {
+                roll(seq, payload.length);
+            }
+            position = current.write(position, seq, payload);
+            if (dirty.isEmpty() || dirty.get(dirty.size() - 1) != current) {
+                dirty.add(current);
+            }
+            writtenSeq = seq;
+            return seq;
+        }
+    }
+
+    /**
+     * 等待序号不大于seq的命令全部刷盘
+     * @throws IllegalStateException 日志已关闭或刷盘线程失败，命令没有刷盘
+     */
+    public void awaitDurable(long seq) throws InterruptedException {
+        commitLock.lock();
+        try {
+            pending.signal();
+            while (durableSeq < seq) {
+                checkFailure();
+                if (!running && !flusher.isAlive()) {
+                    throw new IllegalStateException("command journal is closed");
+                }
+                durable.await();
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 重放检查点之后的全部命令，应在追加新命令之前调用
+     * @return 重放的命令数
+     */
+    public long replay(Consumer<Command> consumer) {
+        List<Segment> snapshot;
+        synchronized (appendLock) {
+            snapshot = new ArrayList<>(segments);
+        }
+        long from = checkpointSeq;
+        long[] count = new long[1];
+        for (int i = 0; i < snapshot.size(); i++) {
+            if (i + 1 < snapshot.size() && snapshot.get(i + 1).getFirstSeq() <= from + 1) {
+                continue;
+            }
+            snapshot.get(i).scan((seq, payload) -> {
+                if (seq > from) {
+                    consumer.accept(serializer.deserialize(payload));
+                    count[0]++;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * 确认序号为seq的命令已经执行，确认可以乱序到达
+     * 只推进内存中连续确认的最大序号，检查点由刷盘线程按间隔写入，不在每次确认时写文件
+     */
+    public void ack(long seq) {
+        synchronized (ackLock) {
+            if (ackedSeq < checkpointSeq) {
+                ackedSeq = checkpointSeq;
+                pendingAcks.headSet(ackedSeq, true).clear();
+            }
+            if (seq <= ackedSeq) {
+                return;
+            }
+            pendingAcks.add(seq);
+            while (!pendingAcks.isEmpty() && pendingAcks.first() == ackedSeq + 1) {
+                ackedSeq = pendingAcks.pollFirst();
+            }
+        }
+    }
+
+    /**
+     * 记录序号不大于seq的命令已经执行完成，重启后不再重放
+     */
+    public void checkpoint(long seq) throws IOException {
+        checkpointLock.lock();
+        try {
+            writeCheckpoint(seq);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * 将连续确认的最大序号写入检查点，没有新的确认时不写文件
+     */
+    private void checkpointAcked() throws IOException {
+        checkpointLock.lock();
+        try {
+            long target = getAckedSeq();
+            if (target > checkpointSeq) {
+                writeCheckpoint(target);
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    private void writeCheckpoint(long seq) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putLong(0, seq);
+            channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        checkpointSeq = seq;
+    }
+
+    /**
+     * 先将已确认的命令写入检查点，再删除所有记录都在检查点之前的段文件
+     * @return 删除的段文件数
+     */
+    public int compact() throws IOException {
+        checkpointAcked();
+        List<Segment> removable = new ArrayList<>();
+        synchronized (appendLock) {
+            while (segments.size() > 1 && segments.get(1).getFirstSeq() - 1 <= checkpointSeq) {
+                removable.add(segments.remove(0));
+            }
+        }
+        for (Segment segment : removable) {
+            Files.deleteIfExists(segment.getPath());
+        }
+        return removable.size();
+    }
+
+    public long getDurableSeq() {
+        return durableSeq;
+    }
+
+    public long getAckedSeq() {
+        synchronized (ackLock) {
+            return Math.max(ackedSeq, checkpointSeq);
+        }
+    }
+
+    public long getCheckpointSeq() {
+        return checkpointSeq;
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public int getSegmentCount() {
+        synchronized (appendLock) {
+            return segments.size();
+        }
+    }
+
+    /**
+     * 等待已追加的命令刷盘并写入最后一次检查点
+     * @throws IllegalStateException 刷盘线程失败
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (appendLock) {
+            running = false;
+        }
+        commitLock.lock();
+        try {
+            pending.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        flusher.join();
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("command journal flusher failed", cause);
+        }
+    }
+
+    private void fail(Throwable cause) {
+        commitLock.lock();
+        try {
+            failure = cause;
+            durable.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * 段文件之间的序号必须连续，第一个段不能晚于检查点，否则说明有已刷盘的命令丢失，拒绝启动而不是跳过这些命令
+     */
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + Segment.SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        long lastSeq = checkpointSeq;
+        long expectedFirst = -1;
+        for (Path file : files) {
+            Segment segment = Segment.open(file);
+            if (expectedFirst < 0 && segment.getFirstSeq() > checkpointSeq + 1) {
+                throw new IOException("command journal gap after checkpoint " + checkpointSeq
+                        + ", first segment starts at " + segment.getFirstSeq());
+            }
+            if (expectedFirst >= 0 && segment.getFirstSeq() != expectedFirst) {
+                throw new IOException("command journal gap before segment " + file.getFileName()
+                        + ", expected first seq " + expectedFirst);
+            }
+            long[] last = {segment.getFirstSeq() - 1};
+            position = segment.scan((seq, payload) -> last[0] = seq);
+            expectedFirst = last[0] + 1;
+            lastSeq = Math.max(lastSeq, last[0]);
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, lastSeq + 1, segmentSize));
+            position = 0;
+        }
+        current = segments.get(segments.size() - 1);
+        writtenSeq = lastSeq;
+        durableSeq = lastSeq;
+    }
+
+    private void roll(long seq, int payloadLength) {
+        if (Segment.HEADER_SIZE + payloadLength > segmentSize) {
+            throw new IllegalArgumentException("command too large for segment, size:" + payloadLength);
+        }
+        try {
+            current = Segment.create(directory, seq, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(current);
+        position = 0;
+    }
+
+    /**
+     * 刷盘线程，没有新命令时最多等待一个检查点间隔，按间隔写入检查点，退出前写入最后一次检查点
+     * 任何异常都记录下来并唤醒等待刷盘的调用方
+     */
+    private void flushLoop() {
+        try {
+            while (true) {
+                boolean flush;
+                commitLock.lock();
+                try {
+                    if (running && writtenSeq <= durableSeq) {
+                        pending.awaitNanos(checkpointIntervalNanos);
+                    }
+                    if (!running && writtenSeq <= durableSeq) {
+                        break;
+                    }
+                    flush = writtenSeq > durableSeq;
+                } finally {
+                    commitLock.unlock();
+                }
+                if (flush) {
+                    flush();
+                }
+                if (System.nanoTime() - lastCheckpointNanos >= checkpointIntervalNanos) {
+                    checkpointAcked();
+                    lastCheckpointNanos = System.nanoTime();
+                }
+            }
+            checkpointAcked();
+            commitLock.lock();
+            try {
+                durable.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    private void flush() {
+        if (groupCommitNanos > 0 && running) {
+            LockSupport.parkNanos(groupCommitNanos);
+        }
+        long target;
+        List<Segment> toFlush;
+        synchronized (appendLock) {
+            target = writtenSeq;
+            toFlush = new ArrayList<>(dirty);
+            dirty.clear();
+        }
+        for (Segment segment : toFlush) {
+            segment.force();
+        }
+        flushes.incrementAndGet();
+        commitLock.lock();
+        try {
+            durableSeq = target;
+            durable.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+}
@@ -0,0 +1,14 @@
+package cn.sh.command.journal;
+
+import cn.sh.command.Command;
+
+/**
+ * 命令与日志记录之间的转换
+ * @author sh
+ */
+public interface CommandSerializer {
+
+    byte[] serialize(Command command);
+
+    Command deserialize(byte[] data);
+}
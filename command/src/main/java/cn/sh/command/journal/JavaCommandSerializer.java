@@ -0,0 +1,39 @@
+package cn.sh.command.journal;
+
+import cn.sh.command.Command;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 使用Java序列化，命令需要实现{@link java.io.Serializable}
+ * @author sh
+ */
+public class JavaCommandSerializer implements CommandSerializer {
+
+    @Override
+    public byte[] serialize(Command command) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(command);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Command deserialize(byte[] data) {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Command) objectIn.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
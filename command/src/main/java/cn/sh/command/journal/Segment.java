@@ -0,0 +1,133 @@
+package cn.sh.command.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 内存映射的日志段文件，文件名为段内第一条记录的序号
+ * 记录格式: 记录长度(int) + crc32(int) + 序号(long) + 命令数据，长度为0表示段结束
+ * @author sh
+ */
+final class Segment {
+
+    static final int HEADER_SIZE = 16;
+
+    static final String SUFFIX = ".log";
+
+    private final long firstSeq;
+
+    private final Path path;
+
+    private final MappedByteBuffer buffer;
+
+    private Segment(long firstSeq, Path path, MappedByteBuffer buffer) {
+        this.firstSeq = firstSeq;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    static Segment create(Path directory, long firstSeq, int size) throws IOException {
+        return map(directory.resolve(String.format("%020d%s", firstSeq, SUFFIX)), firstSeq, size);
+    }
+
+    static Segment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long firstSeq = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        return map(path, firstSeq, -1);
+    }
+
+    private static Segment map(Path path, long firstSeq, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = size > 0 ? size : channel.size();
+            return new Segment(firstSeq, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        }
+    }
+
+    /**
+     * 从头扫描有效记录，遇到结束标记、校验失败或序号不连续时停止
+     * @return 最后一条有效记录之后的位置
+     */
+    int scan(RecordVisitor visitor) {
+        int position = 0;
+        long expectedSeq = firstSeq;
+        int limit = buffer.capacity();
+        ByteBuffer view = buffer.duplicate();
+        while (position + HEADER_SIZE <= limit) {
+            int size = buffer.getInt(position);
+            if (size < HEADER_SIZE || position + size > limit) {
+                break;
+            }
+            int crc = buffer.getInt(position + 4);
+            long seq = buffer.getLong(position + 8);
+            if (seq != expectedSeq) {
+                break;
+            }
+            byte[] payload = new byte[size - HEADER_SIZE];
+            view.position(position + HEADER_SIZE);
+            view.get(payload);
+            if (checksum(seq, payload) != crc) {
+                break;
+            }
+            if (visitor != null) {
+                visitor.visit(seq, payload);
+            }
+            position += size;
+            expectedSeq++;
+        }
+        return position;
+    }
+
+    /**
+     * 写入一条记录并在其后写入结束标记
+     * @return 写入后的位置
+     */
+    int write(int position, long seq, byte[] payload) {
+        int size = HEADER_SIZE + payload.length;
+        buffer.position(position);
+        buffer.putInt(size);
+        buffer.putInt(checksum(seq, payload));
+        buffer.putLong(seq);
+        buffer.put(payload);
+        int end = position + size;
+        if (end + 4 <= buffer.capacity()) {
+            buffer.putInt(end, 0);
+        }
+        return end;
+    }
+
+    boolean fits(int position, int payloadLength) {
+        return position + HEADER_SIZE + payloadLength <= buffer.capacity();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    long getFirstSeq() {
+        return firstSeq;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    private static int checksum(long seq, byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        for (int i = 0; i < 8; i++) {
+            crc32.update((int) (seq >>> (i * 8)));
+        }
+        crc32.update(payload, 0, payload.length);
+        return (int) crc32.getValue();
+    }
+
+    interface RecordVisitor {
+
+        void visit(long seq, byte[] payload);
+    }
+}
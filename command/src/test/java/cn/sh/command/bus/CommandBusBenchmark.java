@@ -0,0 +1,70 @@
+package cn.sh.command.bus;
+
+import cn.sh.command.ConcreteCommand;
+import cn.sh.command.Reciver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令总线吞吐量，生产者线程数由JMH的threads控制
+ * 运行: main方法依次使用1、2、4、8个生产者线程
+ * @author sh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CommandBusBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int workers;
+
+    @Param({"1", "64"})
+    private int batchSize;
+
+    private CommandBus commandBus;
+
+    private ConcreteCommand command;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        commandBus = new CommandBus(65536, workers, batchSize, BackpressurePolicy.BLOCK);
+        commandBus.register(ConcreteCommand.class, new ReciverBatchHandler());
+        command = new ConcreteCommand(new Reciver());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        commandBus.shutdown();
+    }
+
+    @Benchmark
+    public boolean submit() {
+        return commandBus.submit(command);
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (int producers : new int[]{1, 2, 4, 8}) {
+            Options options = new OptionsBuilder()
+                    .include(CommandBusBenchmark.class.getSimpleName())
+                    .threads(producers)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
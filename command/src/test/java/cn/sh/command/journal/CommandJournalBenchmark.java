@@ -0,0 +1,146 @@
+package cn.sh.command.journal;
+
+import cn.sh.command.Command;
+import cn.sh.command.Invoker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 命令日志基准测试
+ * 1. 不同生产者线程数下每秒可持久化的命令数和每次刷盘合并的命令数
+ * 2. 通过{@link Invoker}追加、执行并确认命令的完整路径，每秒完成的命令数和检查点推进情况
+ * 3. 重放指定大小日志的速度
+ * 运行: 以main方法启动，参数为重放测试的日志大小(MB)，默认1024
+ * @author sh
+ */
+public class CommandJournalBenchmark {
+
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    private static final int PAYLOAD_SIZE = 100;
+
+    private static final long DURATION_MILLIS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        long journalMb = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+        CommandSerializer serializer = new FixedSizeSerializer();
+        for (int producers : new int[]{1, 4, 16, 64}) {
+            durableThroughput(serializer, producers);
+        }
+        for (int producers : new int[]{1, 4, 16, 64}) {
+            invokerThroughput(serializer, producers);
+        }
+        replay(serializer, journalMb);
+    }
+
+    private static void durableThroughput(CommandSerializer serializer, int producers) throws Exception {
+        Path directory = Files.createTempDirectory("journal-bench");
+        AtomicLong appended = new AtomicLong();
+        try (CommandJournal journal = new CommandJournal(directory, SEGMENT_SIZE, serializer, 200)) {
+            long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                Thread thread = new Thread(() -> {
+                    Command command = () -> {
+                    };
+                    try {
+                        while (System.currentTimeMillis() < deadline) {
+                            journal.append(command);
+                            appended.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            System.out.printf("producers=%d, durable commands/s=%.0f, commands per fsync=%.1f%n", producers,
+                    appended.get() * 1000.0 / DURATION_MILLIS, (double) appended.get() / journal.getFlushes());
+        }
+        delete(directory);
+    }
+
+    private static void invokerThroughput(CommandSerializer serializer, int producers) throws Exception {
+        Path directory = Files.createTempDirectory("journal-invoker-bench");
+        AtomicLong executed = new AtomicLong();
+        try (CommandJournal journal = new CommandJournal(directory, SEGMENT_SIZE, serializer, 200)) {
+            long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                Invoker invoker = new Invoker(executed::incrementAndGet, journal);
+                Thread thread = new Thread(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        invoker.action();
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            System.out.printf("invoker producers=%d, executed commands/s=%.0f, commands per fsync=%.1f, "
+                            + "acked=%d, checkpoint=%d%n", producers, executed.get() * 1000.0 / DURATION_MILLIS,
+                    (double) executed.get() / journal.getFlushes(), journal.getAckedSeq(), journal.getCheckpointSeq());
+        }
+        delete(directory);
+    }
+
+    private static void replay(CommandSerializer serializer, long journalMb) throws Exception {
+        Path directory = Files.createTempDirectory("journal-replay");
+        long records = (journalMb << 20) / (PAYLOAD_SIZE + 16);
+        try (CommandJournal journal = new CommandJournal(directory, SEGMENT_SIZE, serializer, 0)) {
+            Command command = () -> {
+            };
+            long seq = 0;
+            for (long i = 0; i < records; i++) {
+                seq = journal.write(command);
+            }
+            journal.awaitDurable(seq);
+        }
+        long start = System.nanoTime();
+        long replayed;
+        try (CommandJournal journal = new CommandJournal(directory, SEGMENT_SIZE, serializer, 200)) {
+            replayed = journal.replay(Command::execute);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("replay %dMB: commands=%d, seconds=%.2f, commands/s=%.0f, MB/s=%.0f%n", journalMb,
+                replayed, seconds, replayed / seconds, journalMb / seconds);
+        delete(directory);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static class FixedSizeSerializer implements CommandSerializer {
+
+        private static final Command COMMAND = () -> {
+        };
+
+        @Override
+        public byte[] serialize(Command command) {
+            return new byte[PAYLOAD_SIZE];
+        }
+
+        @Override
+        public Command deserialize(byte[] data) {
+            return COMMAND;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package cn.sh.common.admission;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 并发准入控制
+ * 正在处理的请求达到自适应上限时后来的请求排队，正常情况下先进先出；
+ * 队列在overload时间内一直没有清空时认为过载，改为后进先出，优先处理刚到达、调用方还在等待的请求，
+ * 排在后面的旧请求等待超过上限后直接拒绝，不再占用处理能力
+ * @author sh
+ */
+public class AdmissionController {
+
+    public enum Rejection {
+        /**
+         * 队列已满
+         */
+        QUEUE_FULL,
+        /**
+         * 排队超过等待上限
+         */
+        QUEUE_TIMEOUT
+    }
+
+    private final GradientLimit limit;
+
+    private final int maxQueueSize;
+
+    private final long maxQueueNanos;
+
+    private final long overloadNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+    private volatile int inflight;
+
+    private volatile int queued;
+
+    /**
+     * 队列从空变为非空的时间，之后一直没有清空超过overload时间即为过载
+     */
+    private long busySinceNanos;
+
+    private final AtomicLong rejectedFull = new AtomicLong();
+
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+
+    public AdmissionController(AdmissionProperties properties) {
+        this.limit = new GradientLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), properties.getTolerance(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getWindowMillis()));
+        this.maxQueueSize = properties.getMaxQueueSize();
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxQueueMillis());
+        this.overloadNanos = TimeUnit.MILLISECONDS.toNanos(properties.getOverloadMillis());
+    }
+
+    /**
+     * 获取处理许可，需要排队时阻塞当前线程
+     * @param maxWaitNanos 本次请求最多等待的时间，实际等待不超过配置的排队上限
+     * @return 许可，被拒绝时{@link Permit#isAdmitted()}为false，获得许可时必须调用{@link Permit#release()}
+     */
+    public Permit acquire(long maxWaitNanos) {
+        long start = System.nanoTime();
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (queue.isEmpty() && inflight < limit.getLimit()) {
+                inflight++;
+                return new Permit(start, start, null);
+            }
+            if (queue.size() >= maxQueueSize) {
+                rejectedFull.incrementAndGet();
+                return new Permit(start, start, Rejection.QUEUE_FULL);
+            }
+            if (queue.isEmpty()) {
+                busySinceNanos = start;
+            }
+            waiter = new Waiter(Thread.currentThread());
+            queue.addLast(waiter);
+            queued = queue.size();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = start + Math.min(maxWaitNanos, maxQueueNanos);
+        boolean interrupted = false;
+        while (!waiter.granted) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || interrupted) {
+                lock.lock();
+                try {
+                    if (!waiter.granted) {
+                        removeWaiter(waiter);
+                        rejectedTimeout.incrementAndGet();
+                        break;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                break;
+            }
+            LockSupport.parkNanos(this, remaining);
+            interrupted = Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        long now = System.nanoTime();
+        return waiter.granted ? new Permit(start, now, null) : new Permit(start, now, Rejection.QUEUE_TIMEOUT);
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRejected(Rejection rejection) {
+        return rejection == Rejection.QUEUE_FULL ? rejectedFull.get() : rejectedTimeout.get();
+    }
+
+    private void release(long admittedNanos) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            limit.onSample(now, now - admittedNanos, inflight);
+            inflight--;
+            boolean overloaded = !queue.isEmpty() && now - busySinceNanos > overloadNanos;
+            while (inflight < limit.getLimit() && !queue.isEmpty()) {
+                Waiter next = overloaded ? queue.pollLast() : queue.pollFirst();
+                inflight++;
+                next.granted = true;
+                LockSupport.unpark(next.thread);
+            }
+            queued = queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeWaiter(Waiter waiter) {
+        // 超时的通常是最早排队的请求，从队头开始查找
+        Iterator<Waiter> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == waiter) {
+                iterator.remove();
+                break;
+            }
+        }
+        queued = queue.size();
+    }
+
+    private static final class Waiter {
+
+        private final Thread thread;
+
+        private volatile boolean granted;
+
+        private Waiter(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    public final class Permit {
+
+        private final long arrivedNanos;
+
+        private final long admittedNanos;
+
+        private final Rejection rejection;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long arrivedNanos, long admittedNanos, Rejection rejection) {
+            this.arrivedNanos = arrivedNanos;
+            this.admittedNanos = admittedNanos;
+            this.rejection = rejection;
+        }
+
+        public boolean isAdmitted() {
+            return rejection == null;
+        }
+
+        public Rejection getRejection() {
+            return rejection;
+        }
+
+        public long getQueueNanos() {
+            return admittedNanos - arrivedNanos;
+        }
+
+        /**
+         * 请求处理完成，可以重复调用
+         */
+        public void release() {
+            if (rejection == null && released.compareAndSet(false, true)) {
+                AdmissionController.this.release(admittedNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package cn.sh.common.admission;
+
+import cn.sh.common.deadline.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求进入前获取{@link AdmissionController}的许可，被拒绝时立即返回503
+ * 异步请求在异步处理结束时才归还许可，请求带有截止时间时排队不超过剩余时间
+ * admission.queue.time: 获得许可的请求的排队时间
+ * admission.rejected: 拒绝的请求数，reason区分queue-full和queue-timeout
+ * admission.limit / admission.inflight / admission.queued: 当前并发上限、处理中和排队中的请求数
+ * @author sh
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionController controller;
+
+    private final List<String> excludedPaths;
+
+    private final Timer queueTime;
+
+    private final Counter rejectedFull;
+
+    private final Counter rejectedTimeout;
+
+    public AdmissionFilter(AdmissionController controller, AdmissionProperties properties, MeterRegistry registry) {
+        this.controller = controller;
+        this.excludedPaths = properties.getExcludedPaths();
+        this.queueTime = Timer.builder("admission.queue.time").register(registry);
+        this.rejectedFull = Counter.builder("admission.rejected").tag("reason", "queue-full").register(registry);
+        this.rejectedTimeout = Counter.builder("admission.rejected").tag("reason", "queue-timeout").register(registry);
+        Gauge.builder("admission.limit", controller, AdmissionController::getLimit).register(registry);
+        Gauge.builder("admission.inflight", controller, AdmissionController::getInflight).register(registry);
+        Gauge.builder("admission.queued", controller, AdmissionController::getQueued).register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline deadline = Deadline.current();
+        long maxWaitNanos = deadline == null ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadline.remainingMillis()));
+        AdmissionController.Permit permit = controller.acquire(maxWaitNanos);
+        if (!permit.isAdmitted()) {
+            (permit.getRejection() == AdmissionController.Rejection.QUEUE_FULL ? rejectedFull : rejectedTimeout)
+                    .increment();
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "overloaded");
+            return;
+        }
+        queueTime.record(permit.getQueueNanos(), TimeUnit.NANOSECONDS);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private static final class ReleaseListener implements AsyncListener {
+
+        private final AdmissionController.Permit permit;
+
+        private ReleaseListener(AdmissionController.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
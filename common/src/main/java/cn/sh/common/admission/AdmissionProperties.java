@@ -0,0 +1,125 @@
+package cn.sh.common.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 准入控制配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    /**
+     * 初始并发上限
+     */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    private int maxLimit = 200;
+
+    /**
+     * 允许的延迟上升倍数，窗口平均延迟超过长期平均延迟的该倍数时缩小并发上限
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * 延迟采样窗口
+     */
+    private long windowMillis = 100;
+
+    /**
+     * 最多排队的请求数，排队的请求占用Tomcat工作线程，应明显小于server.tomcat.max-threads
+     */
+    private int maxQueueSize = 50;
+
+    /**
+     * 排队超过该时间直接返回503
+     */
+    private long maxQueueMillis = 200;
+
+    /**
+     * 队列持续不为空超过该时间视为过载，改为后进先出
+     */
+    private long overloadMillis = 50;
+
+    /**
+     * 不受准入控制的路径前缀
+     */
+    private List<String> excludedPaths = new ArrayList<>();
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public void setWindowMillis(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public void setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public long getMaxQueueMillis() {
+        return maxQueueMillis;
+    }
+
+    public void setMaxQueueMillis(long maxQueueMillis) {
+        this.maxQueueMillis = maxQueueMillis;
+    }
+
+    public long getOverloadMillis() {
+        return overloadMillis;
+    }
+
+    public void setOverloadMillis(long overloadMillis) {
+        this.overloadMillis = overloadMillis;
+    }
+
+    public List<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    public void setExcludedPaths(List<String> excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+}
@@ -0,0 +1,81 @@
+package cn.sh.common.admission;
+
+/**
+ * 根据延迟变化调整并发上限
+ * 每个采样窗口计算平均延迟，与无排队时的延迟(各窗口平均延迟的最小值)比较: 延迟没有明显上升时上限增加sqrt(limit)，
+ * 上升超过tolerance倍时按比例缩小，每次最多减半；最小值每隔一段时间重置一次，以适应服务本身耗时的变化
+ * 非线程安全，由{@link AdmissionController}在锁内调用
+ * @author sh
+ */
+class GradientLimit {
+
+    /**
+     * 每隔多少个窗口重置一次最小延迟
+     */
+    private static final int RESET_WINDOWS = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final long windowNanos;
+
+    private double limit;
+
+    private double minRtt;
+
+    private int windows;
+
+    private long windowStart;
+
+    private long windowSum;
+
+    private int windowCount;
+
+    private int windowMaxInflight;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, long windowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowNanos = windowNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @param rttNanos 请求从获得许可到完成的时间，不包括排队时间
+     * @param inflight 请求完成前正在处理的请求数
+     */
+    void onSample(long now, long rttNanos, int inflight) {
+        if (windowCount == 0) {
+            windowStart = now;
+        }
+        windowSum += rttNanos;
+        windowCount++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        if (now - windowStart < windowNanos) {
+            return;
+        }
+        double rtt = (double) windowSum / windowCount;
+        if (minRtt == 0 || rtt < minRtt || ++windows >= RESET_WINDOWS) {
+            minRtt = rtt;
+            windows = 0;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRtt / rtt));
+        double newLimit = limit * gradient;
+        // 上限没有用满时延迟不能说明上限是否合适，不再增加
+        if (windowMaxInflight >= limit / 2) {
+            newLimit += Math.sqrt(limit);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * 0.8 + newLimit * 0.2));
+        windowSum = 0;
+        windowCount = 0;
+        windowMaxInflight = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package cn.sh.common.async;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 异步接口使用的有界线程池
+ * 请求线程只负责提交任务，业务逻辑在该线程池中执行，队列满时直接拒绝
+ * 通过spring.factories自动装配，服务设置async.enabled=true后生效
+ * @author sh
+ */
+@Configuration
+@ConditionalOnClass({WebMvcConfigurer.class, MeterRegistry.class})
+@ConditionalOnProperty(prefix = "async", name = "enabled", havingValue = "true")
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+    @Value("${async.executor.core-size:16}")
+    private int coreSize;
+
+    @Value("${async.executor.max-size:16}")
+    private int maxSize;
+
+    @Value("${async.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${async.request-timeout:10000}")
+    private long requestTimeout;
+
+    @Bean
+    public ThreadPoolTaskExecutor asyncExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("async.executor.rejected");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("async-");
+        executor.setRejectedExecutionHandler((r, e) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("async executor is full, queue depth:" + e.getQueue().size());
+        });
+        executor.initialize();
+        Gauge.builder("async.executor.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("async.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("async.executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(requestTimeout);
+    }
+}
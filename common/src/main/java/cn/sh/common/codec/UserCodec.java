@@ -0,0 +1,200 @@
+package cn.sh.common.codec;
+
+import cn.sh.common.entity.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * User的二进制编解码
+ * 格式: 版本(1字节) + 类型(1字节，0单个/1列表) + [列表长度varint] + User...
+ * 每个User: 字段标记(1字节) + id(zigzag varint) + name(长度varint + UTF-8) + age(zigzag varint)，为null的字段不写入
+ * @author sh
+ */
+public final class UserCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-user";
+
+    private static final int VERSION = 1;
+
+    private static final int KIND_SINGLE = 0;
+
+    private static final int KIND_LIST = 1;
+
+    private static final int FLAG_ID = 1;
+
+    private static final int FLAG_NAME = 1 << 1;
+
+    private static final int FLAG_AGE = 1 << 2;
+
+    /**
+     * 列表长度和name字节数都来自请求数据，分配前先检查上限
+     */
+    public static final int MAX_LIST_SIZE = 100_000;
+
+    public static final int MAX_NAME_LENGTH = 64 * 1024;
+
+    private UserCodec() {
+    }
+
+    public static byte[] encode(User user) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        try {
+            write(user, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeList(List<User> users) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + users.size() * 16);
+        try {
+            writeList(users, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void write(User user, OutputStream out) throws IOException {
+        out.write(VERSION);
+        out.write(KIND_SINGLE);
+        writeUser(user, out);
+    }
+
+    public static void writeList(List<User> users, OutputStream out) throws IOException {
+        out.write(VERSION);
+        out.write(KIND_LIST);
+        writeVarLong(users.size(), out);
+        for (User user : users) {
+            writeUser(user, out);
+        }
+    }
+
+    public static User read(InputStream in) throws IOException {
+        readHeader(in, KIND_SINGLE);
+        return readUser(in);
+    }
+
+    public static List<User> readList(InputStream in) throws IOException {
+        readHeader(in, KIND_LIST);
+        int size = readLength(in, MAX_LIST_SIZE, "user list size");
+        List<User> users = new ArrayList<>(Math.min(size, 1024));
+        for (int i = 0; i < size; i++) {
+            users.add(readUser(in));
+        }
+        return users;
+    }
+
+    private static void readHeader(InputStream in, int expectedKind) throws IOException {
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("unsupported user codec version:" + version);
+        }
+        int kind = readByte(in);
+        if (kind != expectedKind) {
+            throw new IOException("unexpected user codec kind:" + kind + ", expected:" + expectedKind);
+        }
+    }
+
+    private static void writeUser(User user, OutputStream out) throws IOException {
+        int flags = 0;
+        if (user.getId() != null) {
+            flags |= FLAG_ID;
+        }
+        if (user.getName() != null) {
+            flags |= FLAG_NAME;
+        }
+        if (user.getAge() != null) {
+            flags |= FLAG_AGE;
+        }
+        out.write(flags);
+        if (user.getId() != null) {
+            writeVarLong(zigzag(user.getId()), out);
+        }
+        if (user.getName() != null) {
+            byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(name.length, out);
+            out.write(name);
+        }
+        if (user.getAge() != null) {
+            writeVarLong(zigzag(user.getAge()), out);
+        }
+    }
+
+    private static User readUser(InputStream in) throws IOException {
+        int flags = readByte(in);
+        User user = new User();
+        if ((flags & FLAG_ID) != 0) {
+            user.setId(unzigzag(readVarLong(in)));
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            int length = readLength(in, MAX_NAME_LENGTH, "user name length");
+            byte[] name = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int n = in.read(name, offset, length - offset);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                offset += n;
+            }
+            user.setName(new String(name, StandardCharsets.UTF_8));
+        }
+        if ((flags & FLAG_AGE) != 0) {
+            user.setAge((int) unzigzag(readVarLong(in)));
+        }
+        return user;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(long value, OutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static int readLength(InputStream in, int max, String name) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > max) {
+            throw new IOException(name + " out of range:" + length + ", max:" + max);
+        }
+        return (int) length;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
@@ -0,0 +1,28 @@
+package cn.sh.common.codec;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 支持application/x-user二进制格式
+ * 追加在默认转换器之后，未指定Accept或Accept为通配符的客户端仍然得到JSON
+ * 通过spring.factories自动装配，服务设置user-codec.enabled=true后生效
+ * @author sh
+ */
+@Configuration
+@ConditionalOnClass(WebMvcConfigurer.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "user-codec", name = "enabled", havingValue = "true")
+public class UserCodecConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new UserHttpMessageConverter());
+    }
+}
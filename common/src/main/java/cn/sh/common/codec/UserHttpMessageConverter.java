@@ -0,0 +1,88 @@
+package cn.sh.common.codec;
+
+import cn.sh.common.entity.User;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 使用{@link UserCodec}读写User和List&lt;User&gt;，只处理application/x-user，JSON仍由默认的转换器处理
+ * @author sh
+ */
+public class UserHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(UserCodec.MEDIA_TYPE_VALUE);
+
+    public UserHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    /**
+     * 只有Class时无法得知List的元素类型，这里只认User，List&lt;User&gt;由带泛型的canRead/canWrite判断
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return User.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return isUserType(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return (type == null || type instanceof Class ? supports(clazz) : isUserType(type)) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return type == User.class ? UserCodec.read(inputMessage.getBody()) : UserCodec.readList(inputMessage.getBody());
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (value instanceof User) {
+            UserCodec.write((User) value, outputMessage.getBody());
+            return;
+        }
+        List<?> list = (List<?>) value;
+        for (Object element : list) {
+            if (!(element instanceof User)) {
+                throw new HttpMessageNotWritableException("not a user list, element:" + element);
+            }
+        }
+        UserCodec.writeList((List<User>) list, outputMessage.getBody());
+    }
+
+    private boolean isUserType(Type type) {
+        if (type == User.class) {
+            return true;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Type raw = parameterizedType.getRawType();
+            return raw instanceof Class && List.class.isAssignableFrom((Class<?>) raw)
+                    && parameterizedType.getActualTypeArguments()[0] == User.class;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,72 @@
+package cn.sh.common.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求的截止时间
+ * 服务之间通过{@link #HEADER}传递剩余的毫秒数而不是绝对时间，不依赖各机器的时钟一致；
+ * 每一跳收到请求时换算成本机的绝对时间，转发时再换算为剩余时间，中间经过的时间自然被扣除
+ * 当前请求的截止时间保存在线程变量中，异步执行时需要显式传递
+ * @author sh
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Deadline-Ms";
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * @return 当前线程正在处理的请求的截止时间，没有时返回null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前线程的截止时间，传入null时清除
+     */
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 取两者中更早的一个
+     */
+    public Deadline min(Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    /**
+     * 取两者中更晚的一个
+     */
+    public Deadline max(Deadline other) {
+        return other == null || deadlineNanos - other.deadlineNanos >= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+}
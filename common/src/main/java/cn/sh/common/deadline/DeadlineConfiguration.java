@@ -0,0 +1,49 @@
+package cn.sh.common.deadline;
+
+import com.netflix.hystrix.strategy.HystrixPlugins;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * 执行调用方传入的截止时间，到达时已过期的请求直接返回504，异步任务开始执行前再检查一次
+ * 通过spring.factories自动装配，默认开启，设置deadline.enabled=false关闭；
+ * 向下游传递截止时间的Feign拦截器和RestTemplate拦截器由各调用方自己注册
+ * @author sh
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "deadline", name = "enabled", matchIfMissing = true)
+public class DeadlineConfiguration {
+
+    @Bean
+    public DeadlineMetrics deadlineMetrics(MeterRegistry meterRegistry) {
+        return new DeadlineMetrics(meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(DeadlineMetrics deadlineMetrics) {
+        FilterRegistrationBean<DeadlineFilter> registration = new FilterRegistrationBean<>(
+                new DeadlineFilter(deadlineMetrics));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * 使用Hystrix的服务，截止时间随请求线程传递到Hystrix线程
+     */
+    @Configuration
+    @ConditionalOnClass(HystrixPlugins.class)
+    static class HystrixDeadlineConfiguration {
+
+        HystrixDeadlineConfiguration() {
+            DeadlineHystrixConcurrencyStrategy.register();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package cn.sh.common.deadline;
+
+/**
+ * 截止时间已过，调用方已经不再等待结果
+ * @author sh
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
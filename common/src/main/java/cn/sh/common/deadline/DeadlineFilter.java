@@ -0,0 +1,57 @@
+package cn.sh.common.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 读取请求携带的截止时间，已经过期的请求直接返回504，未过期的在处理期间设置到当前线程
+ * 没有携带截止时间的请求不受影响
+ * @author sh
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineMetrics metrics;
+
+    public DeadlineFilter(DeadlineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Deadline deadline = parse(request.getHeader(Deadline.HEADER));
+        if (deadline == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (deadline.isExpired()) {
+            metrics.rejected();
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "deadline exceeded");
+            return;
+        }
+        Deadline previous = Deadline.current();
+        Deadline.set(deadline);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Deadline.set(previous);
+        }
+    }
+
+    private static Deadline parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Deadline.after(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package cn.sh.common.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * 截止时间节省的工作
+ * deadline.rejected: 到达时已经过期、直接拒绝的请求数
+ * deadline.cancelled: 处理过程中因过期而放弃的工作数，stage区分放弃的位置(queued、in-progress、client)
+ * deadline.saved: 放弃时剩余的预计工作时间(毫秒)，只在能够预知工作时长时记录
+ * @author sh
+ */
+public class DeadlineMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Counter rejected;
+
+    private final DistributionSummary saved;
+
+    public DeadlineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.rejected = Counter.builder("deadline.rejected")
+                .description("requests already expired on arrival")
+                .register(registry);
+        this.saved = DistributionSummary.builder("deadline.saved")
+                .baseUnit("milliseconds")
+                .description("remaining work skipped after the deadline passed")
+                .register(registry);
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    /**
+     * @param savedMillis 未执行的预计工作时间，未知时传0
+     */
+    public void cancelled(String stage, long savedMillis) {
+        registry.counter("deadline.cancelled", "stage", stage).increment();
+        if (savedMillis > 0) {
+            saved.record(savedMillis);
+        }
+    }
+
+    /**
+     * 把当前线程的截止时间绑定到异步任务上
+     * 任务开始执行时如果已经过期则直接抛出{@link DeadlineExceededException}，不再执行
+     */
+    public <T> Supplier<T> bind(Supplier<T> task) {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            if (deadline.isExpired()) {
+                cancelled("queued", 0);
+                throw new DeadlineExceededException("deadline exceeded while queued");
+            }
+            Deadline previous = Deadline.current();
+            Deadline.set(deadline);
+            try {
+                return task.get();
+            } finally {
+                Deadline.set(previous);
+            }
+        };
+    }
+}
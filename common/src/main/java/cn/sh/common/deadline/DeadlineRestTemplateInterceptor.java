@@ -0,0 +1,36 @@
+package cn.sh.common.deadline;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * RestTemplate发出请求时携带当前请求剩余的时间，已经过期时不再发出请求
+ * @author sh
+ */
+public class DeadlineRestTemplateInterceptor implements ClientHttpRequestInterceptor {
+
+    private final DeadlineMetrics metrics;
+
+    public DeadlineRestTemplateInterceptor(DeadlineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                metrics.cancelled("client", 0);
+                throw new DeadlineExceededException("deadline exceeded before calling " + request.getURI());
+            }
+            request.getHeaders().set(Deadline.HEADER, String.valueOf(remaining));
+        }
+        return execution.execute(request, body);
+    }
+}
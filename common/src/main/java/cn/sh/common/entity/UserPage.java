@@ -0,0 +1,38 @@
+package cn.sh.common.entity;
+
+import java.util.List;
+
+/**
+ * 分页查询结果，nextCursor为null表示没有下一页
+ * @author sh
+ */
+public class UserPage {
+
+    private List<User> users;
+
+    private String nextCursor;
+
+    public UserPage() {
+    }
+
+    public UserPage(List<User> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,68 @@
+package cn.sh.common.retry;
+
+import org.springframework.cloud.client.ServiceInstanceChooser;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryFactory;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.backoff.BackOffPolicy;
+import org.springframework.retry.backoff.ExponentialRandomBackOffPolicy;
+import org.springframework.retry.listener.RetryListenerSupport;
+
+/**
+ * 为负载均衡重试加上重试预算和随机退避
+ * Feign、@LoadBalanced RestTemplate和Zuul的Ribbon转发在spring-retry存在时都通过{@link LoadBalancedRetryFactory}创建重试策略，
+ * 包装原有的工厂后三者共用同一套按服务名划分的预算，重试次数等规则仍由原有策略(Ribbon配置)决定
+ * @author sh
+ */
+public class BudgetedRetryFactory implements LoadBalancedRetryFactory {
+
+    private final LoadBalancedRetryFactory delegate;
+
+    private final RetryBudgets budgets;
+
+    public BudgetedRetryFactory(LoadBalancedRetryFactory delegate, RetryBudgets budgets) {
+        this.delegate = delegate;
+        this.budgets = budgets;
+    }
+
+    @Override
+    public LoadBalancedRetryPolicy createRetryPolicy(String service, ServiceInstanceChooser serviceInstanceChooser) {
+        LoadBalancedRetryPolicy policy = delegate.createRetryPolicy(service, serviceInstanceChooser);
+        return policy == null ? null : new BudgetedRetryPolicy(policy, budgets, service);
+    }
+
+    /**
+     * 整个调用(包括重试)最终成功时向预算存入令牌
+     */
+    @Override
+    public RetryListener[] createRetryListeners(String service) {
+        RetryListener[] listeners = delegate.createRetryListeners(service);
+        RetryListener[] result = new RetryListener[listeners.length + 1];
+        System.arraycopy(listeners, 0, result, 0, listeners.length);
+        result[listeners.length] = new RetryListenerSupport() {
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                       Throwable throwable) {
+                if (throwable == null) {
+                    budgets.recordSuccess(service);
+                }
+            }
+        };
+        return result;
+    }
+
+    /**
+     * 指数退避，每次等待时间随机放大，避免多个客户端在同一时刻重试
+     */
+    @Override
+    public BackOffPolicy createBackOffPolicy(String service) {
+        RetryBudgetProperties properties = budgets.getProperties();
+        ExponentialRandomBackOffPolicy backOffPolicy = new ExponentialRandomBackOffPolicy();
+        backOffPolicy.setInitialInterval(properties.getInitialBackoffMillis());
+        backOffPolicy.setMultiplier(properties.getMultiplier());
+        backOffPolicy.setMaxInterval(properties.getMaxBackoffMillis());
+        return backOffPolicy;
+    }
+}
@@ -0,0 +1,55 @@
+package cn.sh.common.retry;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+
+/**
+ * 原有策略决定重试后再向预算申请令牌，预算不足时结束重试
+ * registerThrowable每次失败只调用一次，canRetry*会在一次失败中被多次调用，所以在registerThrowable中扣除令牌
+ * @author sh
+ */
+class BudgetedRetryPolicy implements LoadBalancedRetryPolicy {
+
+    private final LoadBalancedRetryPolicy delegate;
+
+    private final RetryBudgets budgets;
+
+    private final String service;
+
+    BudgetedRetryPolicy(LoadBalancedRetryPolicy delegate, RetryBudgets budgets, String service) {
+        this.delegate = delegate;
+        this.budgets = budgets;
+        this.service = service;
+    }
+
+    @Override
+    public boolean canRetrySameServer(LoadBalancedRetryContext context) {
+        return delegate.canRetrySameServer(context);
+    }
+
+    @Override
+    public boolean canRetryNextServer(LoadBalancedRetryContext context) {
+        return delegate.canRetryNextServer(context);
+    }
+
+    @Override
+    public void close(LoadBalancedRetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(LoadBalancedRetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+        if (context.isExhaustedOnly() || !delegate.canRetryNextServer(context)) {
+            return;
+        }
+        if (!budgets.tryRetry(service)) {
+            context.setExhaustedOnly();
+        }
+    }
+
+    @Override
+    public boolean retryableStatusCode(int statusCode) {
+        return delegate.retryableStatusCode(statusCode);
+    }
+}
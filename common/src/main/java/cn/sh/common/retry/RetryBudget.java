@@ -0,0 +1,61 @@
+package cn.sh.common.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个客户端的重试预算，令牌桶实现
+ * 每次成功请求存入ratio个令牌，每次重试取出一个，令牌不足时不再重试，
+ * 因此长期来看重试次数不超过成功请求数的ratio倍；后端大面积失败时成功请求变少，允许的重试随之减少
+ * @author sh
+ */
+public class RetryBudget {
+
+    /**
+     * 令牌以千分之一为单位保存，避免浮点数的CAS
+     */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+
+    private final long capacity;
+
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * 记录一次成功的请求
+     */
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * 尝试取出一次重试所需的令牌
+     * @return 令牌不足时返回false，不应重试
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    public double tokens() {
+        return (double) balance.get() / SCALE;
+    }
+}
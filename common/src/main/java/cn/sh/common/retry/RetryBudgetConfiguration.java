@@ -0,0 +1,39 @@
+package cn.sh.common.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryFactory;
+import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancedRetryFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.support.RetryTemplate;
+
+/**
+ * 重试预算: Feign、@LoadBalanced RestTemplate和Zuul的Ribbon转发的重试次数不超过成功请求数的一定比例，重试之间随机退避
+ * 通过spring.factories自动装配，spring-retry存在时生效；先于Ribbon的自动配置，替换默认的LoadBalancedRetryFactory，
+ * 重试规则仍使用Ribbon配置
+ * @author sh
+ */
+@Configuration
+@ConditionalOnClass({RetryTemplate.class, RibbonLoadBalancedRetryFactory.class, MeterRegistry.class})
+@AutoConfigureBefore(name = {"org.springframework.cloud.netflix.ribbon.RibbonAutoConfiguration",
+        "org.springframework.cloud.client.loadbalancer.LoadBalancerAutoConfiguration"})
+@EnableConfigurationProperties(RetryBudgetProperties.class)
+public class RetryBudgetConfiguration {
+
+    @Bean
+    public RetryBudgets retryBudgets(RetryBudgetProperties retryBudgetProperties, MeterRegistry meterRegistry) {
+        return new RetryBudgets(retryBudgetProperties, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LoadBalancedRetryFactory.class)
+    public LoadBalancedRetryFactory loadBalancedRetryFactory(SpringClientFactory springClientFactory,
+                                                             RetryBudgets retryBudgets) {
+        return new BudgetedRetryFactory(new RibbonLoadBalancedRetryFactory(springClientFactory), retryBudgets);
+    }
+}
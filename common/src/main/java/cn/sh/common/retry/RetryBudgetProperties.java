@@ -0,0 +1,76 @@
+package cn.sh.common.retry;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 重试预算配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "retry.budget")
+public class RetryBudgetProperties {
+
+    /**
+     * 每次成功请求存入的令牌数，即重试次数占成功请求数的比例上限
+     */
+    private double ratio = 0.1;
+
+    /**
+     * 令牌上限，也是启动时的令牌数，决定请求量很小时允许的突发重试次数
+     */
+    private int maxTokens = 10;
+
+    /**
+     * 第一次重试前的退避时间
+     */
+    private long initialBackoffMillis = 50;
+
+    /**
+     * 每次重试退避时间的增长倍数，实际等待时间在[退避时间, 退避时间 * multiplier)之间随机
+     */
+    private double multiplier = 2.0;
+
+    /**
+     * 退避时间上限
+     */
+    private long maxBackoffMillis = 1000;
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public void setRatio(double ratio) {
+        this.ratio = ratio;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+
+    public long getInitialBackoffMillis() {
+        return initialBackoffMillis;
+    }
+
+    public void setInitialBackoffMillis(long initialBackoffMillis) {
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+}
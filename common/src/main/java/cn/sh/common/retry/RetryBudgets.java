@@ -0,0 +1,77 @@
+package cn.sh.common.retry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按客户端(服务名)划分的重试预算
+ * retry.budget.allowed / retry.budget.denied: 预算允许和拒绝的重试次数
+ * retry.budget.tokens: 当前剩余的令牌数
+ * @author sh
+ */
+public class RetryBudgets {
+
+    private final RetryBudgetProperties properties;
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<String, Entry> budgets = new ConcurrentHashMap<>();
+
+    public RetryBudgets(RetryBudgetProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    public void recordSuccess(String client) {
+        entry(client).budget.deposit();
+    }
+
+    /**
+     * @return 预算是否允许这次重试，允许时扣除令牌
+     */
+    public boolean tryRetry(String client) {
+        Entry entry = entry(client);
+        if (entry.budget.tryWithdraw()) {
+            entry.allowed.increment();
+            return true;
+        }
+        entry.denied.increment();
+        return false;
+    }
+
+    public RetryBudgetProperties getProperties() {
+        return properties;
+    }
+
+    private Entry entry(String client) {
+        Entry entry = budgets.get(client);
+        return entry != null ? entry : budgets.computeIfAbsent(client, this::newEntry);
+    }
+
+    private Entry newEntry(String client) {
+        RetryBudget budget = new RetryBudget(properties.getRatio(), properties.getMaxTokens());
+        Gauge.builder("retry.budget.tokens", budget, RetryBudget::tokens).tag("client", client).register(registry);
+        return new Entry(budget,
+                Counter.builder("retry.budget.allowed").tag("client", client).register(registry),
+                Counter.builder("retry.budget.denied").tag("client", client).register(registry));
+    }
+
+    private static final class Entry {
+
+        private final RetryBudget budget;
+
+        private final Counter allowed;
+
+        private final Counter denied;
+
+        private Entry(RetryBudget budget, Counter allowed, Counter denied) {
+            this.budget = budget;
+            this.allowed = allowed;
+            this.denied = denied;
+        }
+    }
+}
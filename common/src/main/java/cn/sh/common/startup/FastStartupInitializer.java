@@ -0,0 +1,55 @@
+package cn.sh.common.startup;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 快速启动模式，激活fast-startup profile时生效
+ * 1. 除必须提前初始化的Bean外全部延迟初始化，见{@link LazyInitBeanFactoryPostProcessor}
+ * 2. fast-startup.exit-after-start=true时启动完成后立即退出，用于生成CDS归档的训练运行
+ * 通过common模块的META-INF/spring.factories注册，依赖common的服务都会加载
+ * @author sh
+ */
+public class FastStartupInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    public static final String PROFILE = "fast-startup";
+
+    /**
+     * 默认提前初始化的类型: Eureka客户端、Zuul过滤器和Hystrix切面等基础设施，延迟初始化会推迟注册或导致首个请求才生效
+     */
+    private static final String[] DEFAULT_EAGER_CLASSES = {
+            "com.netflix.discovery.EurekaClient",
+            "com.netflix.appinfo.ApplicationInfoManager",
+            "com.netflix.zuul.ZuulFilter",
+            "org.springframework.cloud.netflix.zuul.ZuulFilterInitializer",
+            "com.netflix.hystrix.contrib.javanica.aop.aspectj.HystrixCommandAspect",
+            "org.springframework.cloud.netflix.hystrix.HystrixStreamEndpoint"
+    };
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        if (!environment.acceptsProfiles(PROFILE)) {
+            return;
+        }
+        Set<String> eagerBeans = new HashSet<>(Arrays.asList(
+                environment.getProperty("fast-startup.eager-beans", String[].class, new String[0])));
+        Set<String> eagerClasses = new HashSet<>(Arrays.asList(
+                environment.getProperty("fast-startup.eager-classes", String[].class, DEFAULT_EAGER_CLASSES)));
+        context.addBeanFactoryPostProcessor(new LazyInitBeanFactoryPostProcessor(eagerBeans, eagerClasses));
+        if (environment.getProperty("fast-startup.exit-after-start", Boolean.class, false)) {
+            context.addApplicationListener(event -> {
+                if (event instanceof ApplicationReadyEvent) {
+                    System.exit(SpringApplication.exit(context));
+                }
+            });
+        }
+    }
+}
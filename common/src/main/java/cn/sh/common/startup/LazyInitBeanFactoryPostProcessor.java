@@ -0,0 +1,96 @@
+package cn.sh.common.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 将Bean定义设置为延迟初始化
+ * 以下Bean保持提前初始化: 基础设施Bean、Lifecycle和SmartInitializingSingleton(例如Eureka注册、Web服务器)、
+ * 带有@Scheduled方法的Bean、fast-startup.eager-beans中配置的Bean，以及类型属于fast-startup.eager-classes的Bean
+ * Spring 5.0的Bean定义无法区分显式声明的lazy=false和未设置，所以需要提前初始化的Bean只能通过配置列出
+ * @author sh
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+    private final Set<String> eagerBeans;
+
+    private final Set<String> eagerClasses;
+
+    public LazyInitBeanFactoryPostProcessor(Set<String> eagerBeans, Set<String> eagerClasses) {
+        this.eagerBeans = eagerBeans;
+        this.eagerClasses = eagerClasses;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        ClassLoader classLoader = beanFactory.getBeanClassLoader();
+        List<Class<?>> eagerTypes = new ArrayList<>();
+        for (String className : eagerClasses) {
+            // 未引入对应依赖的服务中类不存在，忽略
+            if (ClassUtils.isPresent(className, classLoader)) {
+                eagerTypes.add(ClassUtils.resolveClassName(className, classLoader));
+            }
+        }
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (eagerBeans.contains(name) || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                continue;
+            }
+            Class<?> type = resolveType(definition, classLoader);
+            if (type != null && mustBeEager(type, eagerTypes)) {
+                continue;
+            }
+            definition.setLazyInit(true);
+        }
+    }
+
+    private boolean mustBeEager(Class<?> type, List<Class<?>> eagerTypes) {
+        if (Lifecycle.class.isAssignableFrom(type) || SmartInitializingSingleton.class.isAssignableFrom(type)) {
+            return true;
+        }
+        for (Class<?> eagerType : eagerTypes) {
+            if (eagerType.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        AtomicBoolean scheduled = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> scheduled.set(true),
+                method -> method.isAnnotationPresent(Scheduled.class));
+        return scheduled.get();
+    }
+
+    /**
+     * 只根据Bean定义推断类型，不实例化任何Bean，无法推断时返回null
+     */
+    private Class<?> resolveType(BeanDefinition definition, ClassLoader classLoader) {
+        String className = definition.getBeanClassName();
+        if (definition instanceof AnnotatedBeanDefinition) {
+            MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                className = factoryMethod.getReturnTypeName();
+            }
+        }
+        if (className == null) {
+            return null;
+        }
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+}
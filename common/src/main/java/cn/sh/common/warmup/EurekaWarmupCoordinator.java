@@ -0,0 +1,44 @@
+package cn.sh.common.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 应用启动完成后在后台执行预热，预热结束(完成或超时)后才将Eureka中的实例状态设置为UP
+ * 需要配置eureka.instance.initial-status=STARTING，使实例注册时不接收流量
+ * @author sh
+ */
+public class EurekaWarmupCoordinator implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EurekaWarmupCoordinator.class);
+
+    private final WarmupRunner warmupRunner;
+
+    private final ApplicationInfoManager applicationInfoManager;
+
+    public EurekaWarmupCoordinator(WarmupRunner warmupRunner, ApplicationInfoManager applicationInfoManager) {
+        this.warmupRunner = warmupRunner;
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (warmupRunner.getState() != WarmupRunner.State.PENDING) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                warmupRunner.run();
+            } finally {
+                logger.info("warmup finished, mark instance UP");
+                applicationInfoManager.setInstanceStatus(InstanceInfo.InstanceStatus.UP);
+            }
+        }, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,58 @@
+package cn.sh.common.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.loadbalancer.Server;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 上线前预热: 初始化各服务的Ribbon负载均衡器(同时缓存Eureka中的实例列表)、建立连接、重复请求本实例接口
+ * 通过spring.factories自动装配，服务设置warmup.enabled=true后生效
+ * 请求本实例接口时下游如果还不可用，由接口自身的Hystrix降级返回，不另外提供本地桩
+ * @author sh
+ */
+@Configuration
+@ConditionalOnClass({SpringClientFactory.class, ApplicationInfoManager.class})
+@ConditionalOnProperty(prefix = "warmup", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfiguration {
+
+    @Bean
+    public WarmupRunner warmupRunner(WarmupProperties warmupProperties, SpringClientFactory springClientFactory,
+                                     Environment environment) {
+        RestTemplate directRestTemplate = WarmupTasks.directRestTemplate(2000);
+        List<WarmupTask> tasks = new ArrayList<>();
+        for (String service : warmupProperties.getServices()) {
+            tasks.add(WarmupTask.of("loadBalancer:" + service,
+                    () -> springClientFactory.getLoadBalancer(service).getReachableServers()));
+            tasks.add(WarmupTasks.connections(service, () -> springClientFactory.getLoadBalancer(service)
+                            .getReachableServers().stream().map(Server::getHostPort).collect(Collectors.toList()),
+                    directRestTemplate, warmupProperties.getConnectionPath()));
+        }
+        for (String call : warmupProperties.getCalls()) {
+            tasks.add(WarmupTasks.selfCall(environment, directRestTemplate, call, warmupProperties.getRepeat()));
+        }
+        return new WarmupRunner(tasks, warmupProperties.getTimeoutMillis());
+    }
+
+    @Bean
+    public WarmupEndpoint warmupEndpoint(WarmupRunner warmupRunner) {
+        return new WarmupEndpoint(warmupRunner);
+    }
+
+    @Bean
+    public EurekaWarmupCoordinator eurekaWarmupCoordinator(WarmupRunner warmupRunner,
+                                                           ApplicationInfoManager applicationInfoManager) {
+        return new EurekaWarmupCoordinator(warmupRunner, applicationInfoManager);
+    }
+}
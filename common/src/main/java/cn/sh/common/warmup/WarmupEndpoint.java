@@ -0,0 +1,32 @@
+package cn.sh.common.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 查看预热进度 GET /actuator/warmup
+ * @author sh
+ */
+@Endpoint(id = "warmup")
+public class WarmupEndpoint {
+
+    private final WarmupRunner warmupRunner;
+
+    public WarmupEndpoint(WarmupRunner warmupRunner) {
+        this.warmupRunner = warmupRunner;
+    }
+
+    @ReadOperation
+    public Map<String, Object> warmup() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("state", warmupRunner.getState());
+        result.put("progress", warmupRunner.getProgress());
+        result.put("elapsedMillis", warmupRunner.getElapsedMillis());
+        result.put("timeoutMillis", warmupRunner.getTimeoutMillis());
+        result.put("tasks", warmupRunner.getTasks());
+        return result;
+    }
+}
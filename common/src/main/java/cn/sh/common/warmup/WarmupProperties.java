@@ -0,0 +1,79 @@
+package cn.sh.common.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预热配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "warmup")
+public class WarmupProperties {
+
+    /**
+     * 预热总时限，超时后直接上线
+     */
+    private long timeoutMillis = 30000;
+
+    /**
+     * 需要初始化负载均衡器并建立连接的服务
+     */
+    private List<String> services = new ArrayList<>();
+
+    /**
+     * 建立连接时请求的路径
+     */
+    private String connectionPath = "/actuator/health";
+
+    /**
+     * 预热时请求本实例的路径，例如/users/1，后端不可用时由Hystrix降级，同样可以预热调用链路
+     */
+    private List<String> calls = new ArrayList<>();
+
+    /**
+     * 每个路径请求的次数
+     */
+    private int repeat = 20;
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public List<String> getServices() {
+        return services;
+    }
+
+    public void setServices(List<String> services) {
+        this.services = services;
+    }
+
+    public String getConnectionPath() {
+        return connectionPath;
+    }
+
+    public void setConnectionPath(String connectionPath) {
+        this.connectionPath = connectionPath;
+    }
+
+    public List<String> getCalls() {
+        return calls;
+    }
+
+    public void setCalls(List<String> calls) {
+        this.calls = calls;
+    }
+
+    public int getRepeat() {
+        return repeat;
+    }
+
+    public void setRepeat(int repeat) {
+        this.repeat = repeat;
+    }
+}
@@ -0,0 +1,183 @@
+package cn.sh.common.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 按顺序执行预热任务，总耗时超过时限后中断当前任务并跳过剩余任务
+ * 单个任务失败不影响后续任务
+ * @author sh
+ */
+public class WarmupRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT
+    }
+
+    public enum TaskState {
+        PENDING, RUNNING, COMPLETED, FAILED, TIMED_OUT, SKIPPED
+    }
+
+    private final List<WarmupTask> tasks;
+
+    private final long timeoutMillis;
+
+    private final Map<String, TaskResult> results = new LinkedHashMap<>();
+
+    private volatile State state = State.PENDING;
+
+    private volatile long startedAt;
+
+    private volatile long finishedAt;
+
+    public WarmupRunner(List<WarmupTask> tasks, long timeoutMillis) {
+        this.tasks = new ArrayList<>(tasks);
+        this.timeoutMillis = timeoutMillis;
+        for (WarmupTask task : tasks) {
+            results.put(task.getName(), new TaskResult(task.getName()));
+        }
+    }
+
+    public void run() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+        long deadline = startedAt + timeoutMillis;
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "warmup-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean timedOut = false;
+        try {
+            for (WarmupTask task : tasks) {
+                TaskResult result = results.get(task.getName());
+                long remaining = deadline - System.currentTimeMillis();
+                if (timedOut || remaining <= 0) {
+                    timedOut = true;
+                    result.finish(TaskState.SKIPPED, 0, null);
+                    continue;
+                }
+                result.start();
+                long start = System.currentTimeMillis();
+                Future<?> future = executor.submit(() -> {
+                    task.run();
+                    return null;
+                });
+                try {
+                    future.get(remaining, TimeUnit.MILLISECONDS);
+                    result.finish(TaskState.COMPLETED, System.currentTimeMillis() - start, null);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    timedOut = true;
+                    result.finish(TaskState.TIMED_OUT, System.currentTimeMillis() - start, null);
+                } catch (ExecutionException e) {
+                    logger.warn("warmup task {} failed: {}", task.getName(), e.getCause().toString());
+                    result.finish(TaskState.FAILED, System.currentTimeMillis() - start, e.getCause().toString());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(true);
+                    timedOut = true;
+                    result.finish(TaskState.TIMED_OUT, System.currentTimeMillis() - start, null);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        finishedAt = System.currentTimeMillis();
+        state = timedOut ? State.TIMED_OUT : State.COMPLETED;
+        logger.info("warmup {} in {}ms", state, finishedAt - startedAt);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.TIMED_OUT;
+    }
+
+    public long getElapsedMillis() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        return (isFinished() ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * 已结束的任务占全部任务的比例
+     */
+    public double getProgress() {
+        if (tasks.isEmpty()) {
+            return isFinished() ? 1 : 0;
+        }
+        long finished = results.values().stream().filter(TaskResult::isFinished).count();
+        return (double) finished / tasks.size();
+    }
+
+    public List<TaskResult> getTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(results.values()));
+    }
+
+    public static class TaskResult {
+
+        private final String name;
+
+        private volatile TaskState state = TaskState.PENDING;
+
+        private volatile long millis;
+
+        private volatile String error;
+
+        TaskResult(String name) {
+            this.name = name;
+        }
+
+        void start() {
+            this.state = TaskState.RUNNING;
+        }
+
+        void finish(TaskState state, long millis, String error) {
+            this.millis = millis;
+            this.error = error;
+            this.state = state;
+        }
+
+        boolean isFinished() {
+            return state != TaskState.PENDING && state != TaskState.RUNNING;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public TaskState getState() {
+            return state;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package cn.sh.common.warmup;
+
+/**
+ * 预热任务
+ * @author sh
+ */
+public interface WarmupTask {
+
+    String getName();
+
+    void run() throws Exception;
+
+    static WarmupTask of(String name, Runnable runnable) {
+        return new WarmupTask() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void run() {
+                runnable.run();
+            }
+        };
+    }
+}
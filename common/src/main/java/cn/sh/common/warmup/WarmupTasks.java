@@ -0,0 +1,76 @@
+package cn.sh.common.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 常用的HTTP预热任务
+ * @author sh
+ */
+public final class WarmupTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupTasks.class);
+
+    private WarmupTasks() {
+    }
+
+    /**
+     * 不经过负载均衡的RestTemplate，用于直接请求指定实例
+     */
+    public static RestTemplate directRestTemplate(int timeoutMillis) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * 请求服务的每个可用实例一次，建立并保持HTTP连接
+     * @param hostPorts 实例地址，格式为host:port
+     */
+    public static WarmupTask connections(String service, Supplier<List<String>> hostPorts, RestTemplate restTemplate,
+                                         String path) {
+        return WarmupTask.of("connections:" + service, () -> {
+            List<String> servers = hostPorts.get();
+            int failed = 0;
+            for (String hostPort : servers) {
+                try {
+                    restTemplate.getForObject("http://" + hostPort + path, String.class);
+                } catch (RuntimeException e) {
+                    failed++;
+                    logger.debug("warmup connection to {} failed: {}", hostPort, e.toString());
+                }
+            }
+            if (!servers.isEmpty() && failed == servers.size()) {
+                throw new IllegalStateException("no instance of " + service + " is reachable");
+            }
+        });
+    }
+
+    /**
+     * 重复请求本实例的接口，预热整个调用链路(Hystrix线程池、负载均衡、序列化以及JIT)
+     * 本实例端口在任务执行时从local.server.port读取
+     */
+    public static WarmupTask selfCall(Environment environment, RestTemplate restTemplate, String path, int repeat) {
+        return WarmupTask.of("call:" + path, () -> {
+            String url = "http://localhost:" + environment.getProperty("local.server.port") + path;
+            int failed = 0;
+            for (int i = 0; i < repeat && !Thread.currentThread().isInterrupted(); i++) {
+                try {
+                    restTemplate.getForObject(url, String.class);
+                } catch (RuntimeException e) {
+                    failed++;
+                }
+            }
+            if (failed == repeat) {
+                throw new IllegalStateException("all warmup calls to " + path + " failed");
+            }
+        });
+    }
+}
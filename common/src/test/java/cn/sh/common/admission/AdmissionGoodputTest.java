@@ -0,0 +1,134 @@
+package cn.sh.common.admission;
+
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 对比有无准入控制时过载下的有效吞吐(调用方超时前完成的请求数)
+ * 模拟Tomcat: 200个工作线程，工作线程不足时请求在无界队列中先进先出等待；
+ * 服务端处理能力为CORES个并发、每个请求SERVICE_MILLIS毫秒，调用方CLIENT_TIMEOUT_MILLIS毫秒后放弃
+ * 每种场景先以0.8倍负载运行，再以3倍负载运行，逐秒输出有效吞吐、503和超时数量；
+ * 3倍负载阶段跳过第一秒后，有准入控制时的有效吞吐应不低于处理能力的80%，且高于没有准入控制时
+ * @author sh
+ */
+public class AdmissionGoodputTest {
+
+    private static final int CORES = 4;
+
+    private static final int SERVICE_MILLIS = 10;
+
+    private static final int CAPACITY = CORES * 1000 / SERVICE_MILLIS;
+
+    private static final int TOMCAT_THREADS = 200;
+
+    private static final long CLIENT_TIMEOUT_MILLIS = 200;
+
+    private static final int PHASE_SECONDS = 4;
+
+    private static final double MIN_GOODPUT_RATIO = 0.8;
+
+    @Test
+    public void admissionKeepsGoodputUnderOverload() throws Exception {
+        System.out.printf("capacity=%d/s, client timeout=%dms%n", CAPACITY, CLIENT_TIMEOUT_MILLIS);
+        double fifo = run("fifo", null);
+        double admission = run("admission", new AdmissionController(new AdmissionProperties()));
+        System.out.printf("%n3x goodput: fifo=%.0f/s, admission=%.0f/s%n", fifo, admission);
+
+        assertTrue("admission goodput " + admission + "/s below " + MIN_GOODPUT_RATIO + " of capacity " + CAPACITY,
+                admission >= CAPACITY * MIN_GOODPUT_RATIO);
+        assertTrue("admission goodput " + admission + "/s not above fifo " + fifo + "/s", admission > fifo);
+    }
+
+    /**
+     * @return 3倍负载阶段(跳过第一秒)平均每秒的有效吞吐
+     */
+    private static double run(String name, AdmissionController controller) throws Exception {
+        ThreadPoolExecutor tomcat = new ThreadPoolExecutor(TOMCAT_THREADS, TOMCAT_THREADS, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        Semaphore cpu = new Semaphore(CORES, true);
+        Stats stats = new Stats();
+        System.out.printf("%n== %s ==%n", name);
+        System.out.println("load  second  goodput  rejected  late  limit");
+        try {
+            drive(tomcat, cpu, controller, stats, CAPACITY * 8 / 10, "0.8x");
+            long[] overload = drive(tomcat, cpu, controller, stats, CAPACITY * 3, "3x");
+            long total = 0;
+            for (int second = 1; second < overload.length; second++) {
+                total += overload[second];
+            }
+            return (double) total / (overload.length - 1);
+        } finally {
+            tomcat.shutdownNow();
+            tomcat.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * @return 每秒的有效吞吐
+     */
+    private static long[] drive(ThreadPoolExecutor tomcat, Semaphore cpu, AdmissionController controller,
+                                Stats stats, int rate, String load) {
+        long[] goodput = new long[PHASE_SECONDS];
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long next = start;
+        for (int second = 1; second <= PHASE_SECONDS; second++) {
+            long end = start + TimeUnit.SECONDS.toNanos(second);
+            while (next < end) {
+                long arrived = next;
+                tomcat.execute(() -> handle(cpu, controller, stats, arrived));
+                next += interval;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+            goodput[second - 1] = stats.goodput.getAndSet(0);
+            System.out.printf("%-5s %6d  %7d  %8d  %4d  %5s%n", load, second, goodput[second - 1],
+                    stats.rejected.getAndSet(0), stats.late.getAndSet(0),
+                    controller == null ? "-" : String.valueOf(controller.getLimit()));
+        }
+        return goodput;
+    }
+
+    private static void handle(Semaphore cpu, AdmissionController controller, Stats stats, long arrived) {
+        AdmissionController.Permit permit = null;
+        if (controller != null) {
+            permit = controller.acquire(Long.MAX_VALUE);
+            if (!permit.isAdmitted()) {
+                stats.rejected.incrementAndGet();
+                return;
+            }
+        }
+        try {
+            cpu.acquireUninterruptibly();
+            try {
+                Thread.sleep(SERVICE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                cpu.release();
+            }
+        } finally {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+        long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - arrived);
+        (latency <= CLIENT_TIMEOUT_MILLIS ? stats.goodput : stats.late).incrementAndGet();
+    }
+
+    private static final class Stats {
+
+        private final AtomicLong goodput = new AtomicLong();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        private final AtomicLong late = new AtomicLong();
+    }
+}
@@ -0,0 +1,76 @@
+package cn.sh.common.codec;
+
+import cn.sh.common.entity.User;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对比UserCodec与Jackson JSON的体积和编解码耗时
+ * 运行: 以main方法启动，参数为每批User数量，默认1000
+ * @author sh
+ */
+public class UserCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2000;
+
+    private static final int MEASURE_ROUNDS = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        List<User> users = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            User user = new User("sh" + i, 20 + i % 50);
+            user.setId((long) i);
+            users.add(user);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        TypeReference<List<User>> listType = new TypeReference<List<User>>() {
+        };
+
+        byte[] binary = UserCodec.encodeList(users);
+        byte[] json = objectMapper.writeValueAsBytes(users);
+        System.out.printf("bytes per user: binary=%.2f, json=%.2f%n",
+                (double) binary.length / batchSize, (double) json.length / batchSize);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += UserCodec.encodeList(users).length;
+            sink += UserCodec.readList(new ByteArrayInputStream(binary)).size();
+            sink += objectMapper.writeValueAsBytes(users).length;
+            sink += objectMapper.<List<User>>readValue(json, listType).size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += UserCodec.encodeList(users).length;
+        }
+        long binaryEncode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += UserCodec.readList(new ByteArrayInputStream(binary)).size();
+        }
+        long binaryDecode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += objectMapper.writeValueAsBytes(users).length;
+        }
+        long jsonEncode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink += objectMapper.<List<User>>readValue(json, listType).size();
+        }
+        long jsonDecode = System.nanoTime() - start;
+
+        double perUser = (double) MEASURE_ROUNDS * batchSize;
+        System.out.printf("encode ns per user: binary=%.1f, json=%.1f%n", binaryEncode / perUser, jsonEncode / perUser);
+        System.out.printf("decode ns per user: binary=%.1f, json=%.1f%n", binaryDecode / perUser, jsonDecode / perUser);
+        System.out.println("sink:" + sink);
+    }
+}
@@ -0,0 +1,47 @@
+package cn.sh.feign.demo.batch;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注在Feign接口的单个查询方法上，时间窗口内的并发调用合并为批量请求
+ * 单个查询方法只能有一个参数，作为批量查询的key；批量方法必须在同一接口中，参数为key的List，
+ * 返回值为Map(key到结果)或List(按{@link #key()}对应，未指定时按参数顺序对应)
+ * <pre>
+ * &#64;Batched(value = "findUsers", key = "id")
+ * &#64;GetMapping("/users/{id}")
+ * User getUser(&#64;PathVariable("id") Long id);
+ *
+ * &#64;GetMapping("/users")
+ * List&lt;User&gt; findUsers(&#64;RequestParam("ids") List&lt;Long&gt; ids);
+ * </pre>
+ * @author sh
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+
+    /**
+     * 批量方法的名称
+     */
+    String value();
+
+    /**
+     * 批量方法返回List时，结果中与key对应的属性
+     */
+    String key() default "";
+
+    /**
+     * 单个批量请求最多包含的key，超过时拆分为多个批量请求并行发出
+     */
+    int maxBatchSize() default 50;
+
+    /**
+     * 收集调用的时间窗口，第一个调用到达后等待该时间再发出批量请求
+     */
+    long windowMillis() default 5;
+}
@@ -0,0 +1,134 @@
+package cn.sh.feign.demo.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为包含{@link Batched}方法的Feign客户端加上调用合并
+ * Feign客户端本身是JDK动态代理，这里在外面再包一层代理，{@link Batched}方法交给{@link MethodBatcher}，其余方法直接调用原客户端
+ * 批量方法仍经过原客户端调用，Hystrix降级、重试预算等对批量请求照常生效
+ * @author sh
+ */
+public class BatchingFeignPostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "feign-batch-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService executor;
+
+    private final long maxWaitMillis;
+
+    /**
+     * @param maxWaitMillis 调用方等待批量结果的上限，取Hystrix的命令超时
+     */
+    public BatchingFeignPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, long maxWaitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitMillis = maxWaitMillis;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "feign-batch-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!Proxy.isProxyClass(bean.getClass())) {
+            return bean;
+        }
+        for (Class<?> type : bean.getClass().getInterfaces()) {
+            if (AnnotationUtils.findAnnotation(type, FeignClient.class) == null) {
+                continue;
+            }
+            Map<Method, MethodBatcher> batchers = batchers(type, bean);
+            if (!batchers.isEmpty()) {
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new BatchingInvocationHandler(bean, batchers));
+            }
+        }
+        return bean;
+    }
+
+    private Map<Method, MethodBatcher> batchers(Class<?> type, Object target) {
+        Map<Method, MethodBatcher> batchers = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            Batched batched = AnnotationUtils.findAnnotation(method, Batched.class);
+            if (batched == null) {
+                continue;
+            }
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("@Batched method must have exactly one parameter: " + method);
+            }
+            Method batchMethod = batchMethod(type, batched.value());
+            String name = type.getSimpleName() + "." + method.getName();
+            batchers.put(method, new MethodBatcher(name, target, batchMethod, batched, maxWaitMillis, executor, timer,
+                    meterRegistry.getObject()));
+        }
+        return batchers;
+    }
+
+    private static Method batchMethod(Class<?> type, String name) {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1
+                    && method.getParameterTypes()[0].isAssignableFrom(List.class)
+                    && (List.class.isAssignableFrom(method.getReturnType())
+                    || Map.class.isAssignableFrom(method.getReturnType()))) {
+                return method;
+            }
+        }
+        throw new IllegalStateException("No batch method " + name + "(List) returning List or Map on " + type);
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static final class BatchingInvocationHandler implements InvocationHandler {
+
+        private final Object target;
+
+        private final Map<Method, MethodBatcher> batchers;
+
+        private BatchingInvocationHandler(Object target, Map<Method, MethodBatcher> batchers) {
+            this.target = target;
+            this.batchers = batchers;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodBatcher batcher = batchers.get(method);
+            if (batcher != null) {
+                return batcher.invoke(args[0]);
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
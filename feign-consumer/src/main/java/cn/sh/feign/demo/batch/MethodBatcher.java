@@ -0,0 +1,260 @@
+package cn.sh.feign.demo.batch;
+
+import cn.sh.common.deadline.Deadline;
+import cn.sh.common.deadline.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 一个{@link Batched}方法的调用合并
+ * 时间窗口内的调用按key去重，窗口结束后按maxBatchSize拆分，各批量请求并行发出，结果按key分发给各调用方
+ * 批量请求在feign-batch线程上发出，发出时带上该批调用方中最晚的截止时间，有调用方没有截止时间时不带截止时间，
+ * 避免一个即将超时的调用方让整批请求失败；每个调用方各自最多等到自己的截止时间或maxWaitMillis
+ * feign.batch.calls: 单个调用数
+ * feign.batch.deduplicated: 与窗口内已有调用key相同、共用结果的调用数
+ * feign.batch.requests: 实际发出的批量请求数
+ * feign.batch.ratio: calls / requests，平均每个批量请求代替的调用数
+ * feign.batch.size: 批量请求包含的key数量
+ * feign.batch.wait: 调用在窗口中等待的时间，即合并增加的延迟
+ * @author sh
+ */
+class MethodBatcher {
+
+    private final String name;
+
+    private final Object target;
+
+    private final Method batchMethod;
+
+    private final String keyProperty;
+
+    private final int maxBatchSize;
+
+    private final long windowMillis;
+
+    private final long maxWaitMillis;
+
+    private final Executor executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final Counter calls;
+
+    private final Counter deduplicated;
+
+    private final Counter requests;
+
+    private final DistributionSummary size;
+
+    private final Timer wait;
+
+    private final Object lock = new Object();
+
+    private Map<Object, Call> pending = new LinkedHashMap<>();
+
+    /**
+     * @param maxWaitMillis 没有截止时间时调用方等待结果的上限，应不小于批量请求的Hystrix超时
+     */
+    MethodBatcher(String name, Object target, Method batchMethod, Batched batched, long maxWaitMillis,
+                  Executor executor, ScheduledExecutorService timer, MeterRegistry registry) {
+        this.name = name;
+        this.target = target;
+        this.batchMethod = batchMethod;
+        this.keyProperty = batched.key();
+        this.maxBatchSize = Math.max(1, batched.maxBatchSize());
+        this.windowMillis = Math.max(0, batched.windowMillis());
+        this.maxWaitMillis = windowMillis + Math.max(0, maxWaitMillis);
+        this.executor = executor;
+        this.timer = timer;
+        this.calls = Counter.builder("feign.batch.calls").tag("method", name).register(registry);
+        this.deduplicated = Counter.builder("feign.batch.deduplicated").tag("method", name).register(registry);
+        this.requests = Counter.builder("feign.batch.requests").tag("method", name).register(registry);
+        this.size = DistributionSummary.builder("feign.batch.size").tag("method", name).register(registry);
+        this.wait = Timer.builder("feign.batch.wait").tag("method", name).register(registry);
+        Gauge.builder("feign.batch.ratio", this, MethodBatcher::ratio).tag("method", name).register(registry);
+    }
+
+    /**
+     * 加入当前窗口并等待批量请求的结果
+     */
+    Object invoke(Object key) throws Throwable {
+        long start = System.nanoTime();
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("deadline exceeded before calling " + name);
+        }
+        Call call;
+        boolean first = false;
+        synchronized (lock) {
+            call = pending.get(key);
+            if (call == null) {
+                call = new Call();
+                first = pending.isEmpty();
+                pending.put(key, call);
+            } else {
+                deduplicated.increment();
+            }
+            if (deadline == null) {
+                call.unbounded = true;
+            } else {
+                call.deadline = deadline.max(call.deadline);
+            }
+        }
+        calls.increment();
+        if (first) {
+            timer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        // 按毫秒截断的等待时间到期时截止时间可能还差不到1ms，由截止时间决定等待时长时超时即视为截止时间已过
+        boolean boundedByDeadline = deadline != null && deadline.remainingMillis() < maxWaitMillis;
+        long timeoutMillis = boundedByDeadline ? deadline.remainingMillis() : maxWaitMillis;
+        try {
+            return call.result.get(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            if (boundedByDeadline) {
+                throw new DeadlineExceededException("deadline exceeded while waiting for " + name);
+            }
+            throw new IllegalStateException(name + " batch did not complete within " + timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            wait.record(Math.max(0, call.dispatchedNanos - start), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    double ratio() {
+        double sent = requests.count();
+        return sent == 0 ? 0 : calls.count() / sent;
+    }
+
+    private void flush() {
+        Map<Object, Call> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        long now = System.nanoTime();
+        List<Object> keys = new ArrayList<>(batch.size());
+        for (Map.Entry<Object, Call> entry : batch.entrySet()) {
+            entry.getValue().dispatchedNanos = now;
+            keys.add(entry.getKey());
+        }
+        for (int from = 0; from < keys.size(); from += maxBatchSize) {
+            List<Object> chunk = keys.subList(from, Math.min(keys.size(), from + maxBatchSize));
+            try {
+                executor.execute(() -> send(chunk, batch));
+            } catch (RuntimeException e) {
+                fail(chunk, batch, e);
+            }
+        }
+    }
+
+    private void send(List<Object> keys, Map<Object, Call> batch) {
+        requests.increment();
+        size.record(keys.size());
+        Deadline latest = null;
+        for (Object key : keys) {
+            Call call = batch.get(key);
+            if (call.unbounded) {
+                latest = null;
+                break;
+            }
+            latest = call.deadline.max(latest);
+        }
+        Deadline previous = Deadline.current();
+        Deadline.set(latest);
+        Object result;
+        try {
+            result = batchMethod.invoke(target, new ArrayList<>(keys));
+        } catch (InvocationTargetException e) {
+            fail(keys, batch, e.getCause());
+            return;
+        } catch (Throwable e) {
+            fail(keys, batch, e);
+            return;
+        } finally {
+            Deadline.set(previous);
+        }
+        Map<?, ?> byKey;
+        try {
+            byKey = toMap(keys, result);
+        } catch (RuntimeException e) {
+            fail(keys, batch, e);
+            return;
+        }
+        for (Object key : keys) {
+            batch.get(key).result.complete(byKey.get(key));
+        }
+    }
+
+    private Map<?, ?> toMap(List<Object> keys, Object result) {
+        if (result == null) {
+            return new HashMap<>();
+        }
+        if (result instanceof Map) {
+            return (Map<?, ?>) result;
+        }
+        List<?> values = (List<?>) result;
+        Map<Object, Object> byKey = new HashMap<>(values.size() * 2);
+        if (StringUtils.hasLength(keyProperty)) {
+            for (Object value : values) {
+                if (value != null) {
+                    byKey.put(PropertyAccessorFactory.forBeanPropertyAccess(value).getPropertyValue(keyProperty), value);
+                }
+            }
+            return byKey;
+        }
+        if (values.size() != keys.size()) {
+            throw new IllegalStateException(name + " returned " + values.size() + " results for "
+                    + keys.size() + " keys");
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            byKey.put(keys.get(i), values.get(i));
+        }
+        return byKey;
+    }
+
+    private static void fail(List<Object> keys, Map<Object, Call> batch, Throwable cause) {
+        for (Object key : keys) {
+            batch.get(key).result.completeExceptionally(cause);
+        }
+    }
+
+    private static final class Call {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private volatile long dispatchedNanos;
+
+        /**
+         * 共用该调用的调用方中最晚的截止时间，与unbounded一起在lock内更新，flush交换pending之后不再变化
+         */
+        private Deadline deadline;
+
+        /**
+         * 共用该调用的调用方中有没有截止时间的
+         */
+        private boolean unbounded;
+    }
+}
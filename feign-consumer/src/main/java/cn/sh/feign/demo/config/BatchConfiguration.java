@@ -0,0 +1,27 @@
+package cn.sh.feign.demo.config;
+
+import cn.sh.feign.demo.batch.BatchingFeignPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Feign调用合并: 标注了@Batched的方法在时间窗口内合并为批量请求
+ * @author sh
+ */
+@Configuration
+public class BatchConfiguration {
+
+    /**
+     * 调用方等待合并结果的上限与Hystrix命令超时一致，超时后批量请求已由Hystrix降级
+     */
+    @Bean
+    public static BatchingFeignPostProcessor batchingFeignPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                        Environment environment) {
+        long hystrixTimeout = environment.getProperty(
+                "hystrix.command.default.execution.isolation.thread.timeoutInMilliseconds", Long.class, 1000L);
+        return new BatchingFeignPostProcessor(meterRegistry, hystrixTimeout);
+    }
+}
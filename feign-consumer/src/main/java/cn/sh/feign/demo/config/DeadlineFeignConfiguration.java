@@ -0,0 +1,38 @@
+package cn.sh.feign.demo.config;
+
+import cn.sh.common.deadline.Deadline;
+import cn.sh.common.deadline.DeadlineExceededException;
+import cn.sh.common.deadline.DeadlineMetrics;
+import feign.RequestInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 截止时间传递: common模块的DeadlineConfiguration接收网关传入的截止时间并经Hystrix线程传递，
+ * 这里把截止时间交给Feign，发出请求时扣除已经过去的时间
+ * @author sh
+ */
+@Configuration
+public class DeadlineFeignConfiguration {
+
+    /**
+     * 应用到所有Feign客户端，已经过期时不再发出请求，由Hystrix降级
+     * Feign重试时重新执行拦截器，先清除上一次设置的值；Ribbon层的重试复用同一个请求，沿用第一次发出时的剩余时间
+     */
+    @Bean
+    public RequestInterceptor deadlineRequestInterceptor(DeadlineMetrics deadlineMetrics) {
+        return template -> {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return;
+            }
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                deadlineMetrics.cancelled("client", 0);
+                throw new DeadlineExceededException("deadline exceeded before calling " + template.url());
+            }
+            template.header(Deadline.HEADER);
+            template.header(Deadline.HEADER, String.valueOf(remaining));
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package cn.sh.feign.demo.config;
+
+import cn.sh.common.codec.UserHttpMessageConverter;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.HttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HelloService的Feign客户端配置，只在该客户端的编解码器中追加application/x-user转换器
+ * 不注册为全局的HttpMessageConverter，避免本服务的MVC接口和其他Feign客户端在Accept为通配符时选中二进制格式
+ * 不加@Configuration，由@FeignClient(configuration = ...)引用
+ * @author sh
+ */
+public class UserCodecConfiguration {
+
+    private volatile HttpMessageConverters converters;
+
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+        return new SpringEncoder(withUserConverter(messageConverters));
+    }
+
+    @Bean
+    public Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(withUserConverter(messageConverters))));
+    }
+
+    private ObjectFactory<HttpMessageConverters> withUserConverter(ObjectFactory<HttpMessageConverters> messageConverters) {
+        return () -> {
+            HttpMessageConverters result = converters;
+            if (result == null) {
+                List<HttpMessageConverter<?>> list = new ArrayList<>(messageConverters.getObject().getConverters());
+                list.add(new UserHttpMessageConverter());
+                result = new HttpMessageConverters(false, list);
+                converters = result;
+            }
+            return result;
+        };
+    }
+}
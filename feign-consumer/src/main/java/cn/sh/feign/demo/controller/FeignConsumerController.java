@@ -2,9 +2,11 @@ package cn.sh.feign.demo.controller;
 
 import cn.sh.common.entity.User;
 import cn.sh.feign.demo.service.HelloService;
+import cn.sh.feign.demo.service.UserClient;
 import com.alibaba.fastjson.JSON;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -16,6 +18,9 @@ public class FeignConsumerController {
     @Autowired
     private HelloService helloService;
 
+    @Autowired
+    private UserClient userClient;
+
     @GetMapping(value = "/feignHello")
     public String helloConsumer() {
         return helloService.hello();
@@ -31,4 +36,12 @@ public class FeignConsumerController {
         return sb.toString();
     }
 
+    /**
+     * 并发请求在5毫秒的窗口内合并为一次批量查询
+     */
+    @GetMapping(value = "/feignUsers/{id}")
+    public User getUser(@PathVariable Long id) {
+        return userClient.getUser(id);
+    }
+
 }
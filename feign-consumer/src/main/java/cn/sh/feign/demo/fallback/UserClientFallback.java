@@ -0,0 +1,27 @@
+package cn.sh.feign.demo.fallback;
+
+import cn.sh.common.entity.User;
+import cn.sh.feign.demo.service.UserClient;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author sh
+ */
+@Component
+public class UserClientFallback implements UserClient {
+
+    @Override
+    public User getUser(Long id) {
+        User user = new User("UNKNOWN", 0);
+        user.setId(id);
+        return user;
+    }
+
+    @Override
+    public List<User> findUsers(List<Long> ids) {
+        return ids.stream().map(this::getUser).collect(Collectors.toList());
+    }
+}
@@ -1,6 +1,8 @@
 package cn.sh.feign.demo.service;
 
+import cn.sh.common.codec.UserCodec;
 import cn.sh.common.entity.User;
+import cn.sh.feign.demo.config.UserCodecConfiguration;
 import cn.sh.feign.demo.fallback.HelloServiceFallback;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
@@ -8,7 +10,7 @@ import org.springframework.web.bind.annotation.*;
 /**
  * @author sh
  */
-@FeignClient(value = "hello-service", fallback = HelloServiceFallback.class)
+@FeignClient(value = "hello-service", fallback = HelloServiceFallback.class, configuration = UserCodecConfiguration.class)
 public interface HelloService {
 
     @GetMapping("/feignHello")
@@ -17,9 +19,12 @@ public interface HelloService {
     @GetMapping("/hello1")
     String hello(@RequestParam("name") String name);
 
-    @GetMapping("/hello2")
+    /**
+     * 优先使用二进制格式，服务端不支持时回退到JSON
+     */
+    @GetMapping(value = "/hello2", headers = "Accept=" + UserCodec.MEDIA_TYPE_VALUE + ", application/json;q=0.9")
     User hello(@RequestHeader("name") String name, @RequestHeader("age") Integer age);
 
-    @PostMapping("/hello3")
+    @PostMapping(value = "/hello3", consumes = UserCodec.MEDIA_TYPE_VALUE)
     String hello(@RequestBody User user);
 }
@@ -0,0 +1,26 @@
+package cn.sh.feign.demo.service;
+
+import cn.sh.common.entity.User;
+import cn.sh.feign.demo.batch.Batched;
+import cn.sh.feign.demo.fallback.UserClientFallback;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * 并发的单个查询合并为/users?ids=批量查询
+ * @author sh
+ */
+@FeignClient(value = "user-service", fallback = UserClientFallback.class)
+public interface UserClient {
+
+    @Batched(value = "findUsers", key = "id")
+    @GetMapping("/users/{id}")
+    User getUser(@PathVariable("id") Long id);
+
+    @GetMapping("/users")
+    List<User> findUsers(@RequestParam("ids") List<Long> ids);
+}
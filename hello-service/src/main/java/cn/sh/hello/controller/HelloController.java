@@ -1,9 +1,19 @@
 package cn.sh.hello.controller;
 
+import cn.sh.common.deadline.DeadlineExceededException;
+import cn.sh.common.deadline.DeadlineMetrics;
 import cn.sh.common.entity.User;
+import cn.sh.hello.fault.FaultInjector;
 import cn.sh.hello.service.HelloService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author sh
@@ -14,23 +24,80 @@ public class HelloController {
     @Autowired
     private HelloService helloService;
 
+    @Autowired
+    private FaultInjector faultInjector;
+
+    @Autowired
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    private DeadlineMetrics deadlineMetrics;
+
     @GetMapping("/feignHello")
-    public String hello() {
-        return helloService.hello();
+    public DeferredResult<ResponseEntity<String>> hello() {
+        return faultInjector.inject("feignHello", helloService::hello, HelloController::truncate);
+    }
+
+    /**
+     * /feignHello的同步版本，延迟期间一直占用Tomcat工作线程，只用于压测对比
+     */
+    @GetMapping("/sync/feignHello")
+    public ResponseEntity<String> syncHello() throws InterruptedException {
+        return faultInjector.injectBlocking("feignHello", helloService::hello, HelloController::truncate);
     }
 
     @GetMapping("/hello1")
-    public String hello(@RequestParam String name) {
-        return helloService.hello(name);
+    public DeferredResult<ResponseEntity<String>> hello(@RequestParam String name) {
+        return faultInjector.inject("hello1", () -> helloService.hello(name), HelloController::truncate);
     }
 
     @GetMapping("/hello2")
-    public User hello(@RequestHeader String name, @RequestHeader Integer age) {
-        return new User(name, age);
+    public DeferredResult<ResponseEntity<User>> hello(@RequestHeader String name, @RequestHeader Integer age) {
+        return faultInjector.inject("hello2", () -> new User(name, age), user -> new User(user.getName(), null));
     }
 
     @PostMapping("/hello3")
-    public String hello(@RequestBody User user) {
-        return "Hello " + user.getName() + ", " + user.getAge();
+    public DeferredResult<ResponseEntity<String>> hello(@RequestBody User user) {
+        return faultInjector.inject("hello3", () -> "Hello " + user.getName() + ", " + user.getAge(),
+                HelloController::truncate);
+    }
+
+    @GetMapping("/async/hello1")
+    public CompletableFuture<String> asyncHello(@RequestParam String name) {
+        return CompletableFuture.supplyAsync(deadlineMetrics.bind(() -> helloService.hello(name)), asyncExecutor);
+    }
+
+    @GetMapping("/async/hello2")
+    public CompletableFuture<User> asyncHello(@RequestHeader String name, @RequestHeader Integer age) {
+        return CompletableFuture.supplyAsync(deadlineMetrics.bind(() -> new User(name, age)), asyncExecutor);
+    }
+
+    @PostMapping("/async/hello3")
+    public CompletableFuture<String> asyncHello(@RequestBody User user) {
+        return CompletableFuture.supplyAsync(
+                deadlineMetrics.bind(() -> "Hello " + user.getName() + ", " + user.getAge()), asyncExecutor);
+    }
+
+    /**
+     * 异步线程池已满时快速失败
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> rejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    /**
+     * 异步任务开始执行前截止时间已过
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> deadlineExceeded(DeadlineExceededException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+    }
+
+    /**
+     * 不完整响应只返回前一半内容
+     */
+    private static String truncate(String body) {
+        return body.substring(0, body.length() / 2);
     }
 }
@@ -0,0 +1,24 @@
+package cn.sh.hello.fault;
+
+import cn.sh.common.deadline.DeadlineMetrics;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author sh
+ */
+@Configuration
+@EnableConfigurationProperties(FaultProperties.class)
+public class FaultConfiguration {
+
+    @Bean
+    public FaultInjector faultInjector(FaultProperties faultProperties, DeadlineMetrics deadlineMetrics) {
+        return new FaultInjector(faultProperties, deadlineMetrics);
+    }
+
+    @Bean
+    public FaultEndpoint faultEndpoint(FaultInjector faultInjector) {
+        return new FaultEndpoint(faultInjector);
+    }
+}
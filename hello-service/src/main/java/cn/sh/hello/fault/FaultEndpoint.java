@@ -0,0 +1,87 @@
+package cn.sh.hello.fault;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行时查看和修改故障注入规则
+ * GET /actuator/faults, POST /actuator/faults/{endpoint}, DELETE /actuator/faults/{endpoint}
+ * @author sh
+ */
+@Endpoint(id = "faults")
+public class FaultEndpoint {
+
+    private final FaultInjector faultInjector;
+
+    public FaultEndpoint(FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> faults() {
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("delayed", faultInjector.getDelayed());
+        counters.put("errors", faultInjector.getErrors());
+        counters.put("partials", faultInjector.getPartials());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rules", faultInjector.getRules());
+        result.put("counters", counters);
+        return result;
+    }
+
+    @ReadOperation
+    public FaultRule fault(@Selector String endpoint) {
+        return faultInjector.getRule(endpoint);
+    }
+
+    /**
+     * 只修改传入的字段，其余字段沿用原规则，修改后的规则无效时返回400且原规则不变
+     */
+    @WriteOperation
+    public FaultRule configure(@Selector String endpoint, @Nullable FaultRule.Distribution distribution,
+                               @Nullable Long minDelay, @Nullable Long maxDelay, @Nullable Long meanDelay,
+                               @Nullable Double errorRate, @Nullable Integer errorStatus, @Nullable Double partialRate) {
+        FaultRule current = faultInjector.getRule(endpoint);
+        FaultRule rule = current == null ? new FaultRule() : new FaultRule(current);
+        if (distribution != null) {
+            rule.setDistribution(distribution);
+        }
+        if (minDelay != null) {
+            rule.setMinDelay(minDelay);
+        }
+        if (maxDelay != null) {
+            rule.setMaxDelay(maxDelay);
+        }
+        if (meanDelay != null) {
+            rule.setMeanDelay(meanDelay);
+        }
+        if (errorRate != null) {
+            rule.setErrorRate(errorRate);
+        }
+        if (errorStatus != null) {
+            rule.setErrorStatus(errorStatus);
+        }
+        if (partialRate != null) {
+            rule.setPartialRate(partialRate);
+        }
+        try {
+            faultInjector.putRule(endpoint, rule);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Invalid fault rule: " + e.getMessage(), e.getMessage());
+        }
+        return rule;
+    }
+
+    @DeleteOperation
+    public FaultRule remove(@Selector String endpoint) {
+        return faultInjector.removeRule(endpoint);
+    }
+}
@@ -0,0 +1,198 @@
+package cn.sh.hello.fault;
+
+import cn.sh.common.deadline.Deadline;
+import cn.sh.common.deadline.DeadlineMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 故障注入引擎
+ * 按接口注入延迟、错误和不完整响应，延迟由定时器到期后完成DeferredResult，不占用容器线程
+ * @author sh
+ */
+public class FaultInjector implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FaultInjector.class);
+
+    private final Map<String, FaultRule> rules = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService timer;
+
+    private final AtomicLong delayed = new AtomicLong();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private final AtomicLong partials = new AtomicLong();
+
+    private final DeadlineMetrics deadlineMetrics;
+
+    public FaultInjector(FaultProperties properties, DeadlineMetrics deadlineMetrics) {
+        this.deadlineMetrics = deadlineMetrics;
+        properties.getRules().forEach((name, rule) -> putRule(name, new FaultRule(rule)));
+        AtomicInteger index = new AtomicInteger();
+        this.timer = Executors.newScheduledThreadPool(Math.max(1, properties.getTimerThreads()), r -> {
+            Thread thread = new Thread(r, "fault-timer-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按照接口规则生成响应，无规则时立即完成
+     * 请求带有截止时间且延迟超过剩余时间时，截止时间到达即放弃并返回504，不再等到延迟结束
+     * @param endpoint 接口名称
+     * @param body 正常响应体
+     * @param partial 将正常响应体截断为不完整响应
+     * @return
+     */
+    public <T> DeferredResult<ResponseEntity<T>> inject(String endpoint, Supplier<T> body, UnaryOperator<T> partial) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+        FaultRule rule = rules.get(endpoint);
+        if (rule == null) {
+            result.setResult(ResponseEntity.ok(body.get()));
+            return result;
+        }
+        long delay = nextDelay(rule);
+        Deadline deadline = Deadline.current();
+        long remaining = deadline == null ? Long.MAX_VALUE : deadline.remainingMillis();
+        if (delay > remaining) {
+            delayed.incrementAndGet();
+            timer.schedule(() -> {
+                deadlineMetrics.cancelled("in-progress", delay - remaining);
+                result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build());
+            }, Math.max(0, remaining), TimeUnit.MILLISECONDS);
+            return result;
+        }
+        // 响应体在请求线程中生成，定时器线程只负责完成DeferredResult
+        T value = body.get();
+        Runnable complete = () -> {
+            try {
+                result.setResult(respond(rule, value, partial));
+            } catch (RuntimeException e) {
+                logger.warn("fault injection failed, endpoint:{}", endpoint, e);
+                result.setErrorResult(e);
+            }
+        };
+        if (delay <= 0) {
+            complete.run();
+        } else {
+            delayed.incrementAndGet();
+            logger.debug("inject delay, endpoint:{}, delay:{}", endpoint, delay);
+            timer.schedule(complete, delay, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * 与{@link #inject}使用同一规则，但在请求线程中休眠完成延迟，用于和异步版本对比容器线程被占用时的并发能力
+     * @param endpoint 接口名称
+     * @param body 正常响应体
+     * @param partial 将正常响应体截断为不完整响应
+     * @return
+     */
+    public <T> ResponseEntity<T> injectBlocking(String endpoint, Supplier<T> body, UnaryOperator<T> partial)
+            throws InterruptedException {
+        FaultRule rule = rules.get(endpoint);
+        if (rule == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        long delay = nextDelay(rule);
+        Deadline deadline = Deadline.current();
+        long remaining = deadline == null ? Long.MAX_VALUE : deadline.remainingMillis();
+        if (delay > remaining) {
+            delayed.incrementAndGet();
+            Thread.sleep(Math.max(0, remaining));
+            deadlineMetrics.cancelled("in-progress", delay - remaining);
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+        T value = body.get();
+        if (delay > 0) {
+            delayed.incrementAndGet();
+            Thread.sleep(delay);
+        }
+        return respond(rule, value, partial);
+    }
+
+    private <T> ResponseEntity<T> respond(FaultRule rule, T body, UnaryOperator<T> partial) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (rule.getErrorRate() > 0 && random.nextDouble() < rule.getErrorRate()) {
+            errors.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.valueOf(rule.getErrorStatus())).build();
+        }
+        T value = body;
+        if (rule.getPartialRate() > 0 && random.nextDouble() < rule.getPartialRate()) {
+            partials.incrementAndGet();
+            value = partial.apply(value);
+        }
+        return ResponseEntity.ok(value);
+    }
+
+    private long nextDelay(FaultRule rule) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long min = Math.max(0, rule.getMinDelay());
+        long max = Math.max(min, rule.getMaxDelay());
+        switch (rule.getDistribution()) {
+            case FIXED:
+                return min;
+            case EXPONENTIAL:
+                double sample = -rule.getMeanDelay() * Math.log(1 - random.nextDouble());
+                return Math.min(max, min + (long) sample);
+            case UNIFORM:
+            default:
+                return max > min ? random.nextLong(min, max) : min;
+        }
+    }
+
+    public Map<String, FaultRule> getRules() {
+        return rules;
+    }
+
+    public FaultRule getRule(String endpoint) {
+        return rules.get(endpoint);
+    }
+
+    /**
+     * 整体替换规则，保证请求线程读到的规则不会被部分修改
+     * @throws IllegalArgumentException 规则无效，原规则保持不变
+     */
+    public void putRule(String endpoint, FaultRule rule) {
+        rule.validate();
+        rules.put(endpoint, rule);
+    }
+
+    public FaultRule removeRule(String endpoint) {
+        return rules.remove(endpoint);
+    }
+
+    public long getDelayed() {
+        return delayed.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getPartials() {
+        return partials.get();
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
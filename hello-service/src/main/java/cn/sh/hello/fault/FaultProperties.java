@@ -0,0 +1,37 @@
+package cn.sh.hello.fault;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动时加载的故障注入规则，key为接口名称，例如hello.fault.rules.feignHello.max-delay=3000
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "hello.fault")
+public class FaultProperties {
+
+    /**
+     * 定时器线程数，只负责到期后完成响应，不执行业务逻辑
+     */
+    private int timerThreads = 1;
+
+    private Map<String, FaultRule> rules = new LinkedHashMap<>();
+
+    public int getTimerThreads() {
+        return timerThreads;
+    }
+
+    public void setTimerThreads(int timerThreads) {
+        this.timerThreads = timerThreads;
+    }
+
+    public Map<String, FaultRule> getRules() {
+        return rules;
+    }
+
+    public void setRules(Map<String, FaultRule> rules) {
+        this.rules = rules;
+    }
+}
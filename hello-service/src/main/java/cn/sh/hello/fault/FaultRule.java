@@ -0,0 +1,140 @@
+package cn.sh.hello.fault;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 单个接口的故障注入规则
+ * @author sh
+ */
+public class FaultRule {
+
+    /**
+     * 延迟分布类型
+     */
+    public enum Distribution {
+        /**
+         * 固定延迟，取minDelay
+         */
+        FIXED,
+        /**
+         * [minDelay, maxDelay)之间均匀分布
+         */
+        UNIFORM,
+        /**
+         * 以meanDelay为均值的指数分布，并截断到[minDelay, maxDelay]，maxDelay必须大于minDelay
+         */
+        EXPONENTIAL
+    }
+
+    private Distribution distribution = Distribution.UNIFORM;
+
+    private long minDelay;
+
+    private long maxDelay;
+
+    private long meanDelay;
+
+    /**
+     * 返回错误的概率，取值[0, 1]
+     */
+    private double errorRate;
+
+    private int errorStatus = 500;
+
+    /**
+     * 返回不完整响应的概率，取值[0, 1]
+     */
+    private double partialRate;
+
+    public FaultRule() {
+    }
+
+    public FaultRule(FaultRule other) {
+        this.distribution = other.distribution;
+        this.minDelay = other.minDelay;
+        this.maxDelay = other.maxDelay;
+        this.meanDelay = other.meanDelay;
+        this.errorRate = other.errorRate;
+        this.errorStatus = other.errorStatus;
+        this.partialRate = other.partialRate;
+    }
+
+    /**
+     * 检查规则是否有效，在规则生效前调用，避免在定时器线程中才发现错误
+     * @throws IllegalArgumentException 规则无效
+     */
+    public void validate() {
+        if (distribution == null) {
+            throw new IllegalArgumentException("distribution must not be null");
+        }
+        if (minDelay < 0 || maxDelay < 0 || meanDelay < 0) {
+            throw new IllegalArgumentException("delays must not be negative");
+        }
+        if (distribution == Distribution.EXPONENTIAL && (meanDelay <= 0 || maxDelay <= minDelay)) {
+            throw new IllegalArgumentException("exponential distribution requires meanDelay > 0 and maxDelay > minDelay");
+        }
+        if (errorRate < 0 || errorRate > 1 || partialRate < 0 || partialRate > 1) {
+            throw new IllegalArgumentException("errorRate and partialRate must be within [0, 1]");
+        }
+        if (errorStatus < 400 || errorStatus > 599) {
+            throw new IllegalArgumentException("errorStatus must be a 4xx or 5xx status: " + errorStatus);
+        }
+        HttpStatus.valueOf(errorStatus);
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(long minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    public long getMeanDelay() {
+        return meanDelay;
+    }
+
+    public void setMeanDelay(long meanDelay) {
+        this.meanDelay = meanDelay;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+
+    public double getPartialRate() {
+        return partialRate;
+    }
+
+    public void setPartialRate(double partialRate) {
+        this.partialRate = partialRate;
+    }
+}
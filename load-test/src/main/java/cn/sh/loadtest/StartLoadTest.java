@@ -0,0 +1,18 @@
+package cn.sh.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 单机压测入口
+ * stubs profile: 启动内嵌注册中心以及hello-service、user-service桩
+ * driver profile: 按固定到达速率向被测服务施压并输出报告，再叠加gateway、feign或ribbon profile选择被测服务和请求组合
+ * @author sh
+ */
+@SpringBootApplication
+public class StartLoadTest {
+
+    public static void main(String[] args) {
+        SpringApplication.run(StartLoadTest.class, args);
+    }
+}
@@ -0,0 +1,21 @@
+package cn.sh.loadtest.driver;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 压测驱动，只在driver profile下生效
+ * @author sh
+ */
+@Profile("driver")
+@Configuration
+@EnableConfigurationProperties(LoadProperties.class)
+public class DriverConfiguration {
+
+    @Bean
+    public LoadTestRunner loadTestRunner(LoadProperties loadProperties) {
+        return new LoadTestRunner(loadProperties);
+    }
+}
@@ -0,0 +1,243 @@
+package cn.sh.loadtest.driver;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型压测驱动
+ * 第i个请求的计划发送时间固定为start + i / rate，发送线程只负责按计划时间发出请求，响应由异步客户端回调处理，
+ * 被测服务变慢时请求不会被推迟或减少，延迟从计划发送时间开始计算
+ * 运行期间每个采样间隔向throughput.csv追加一行吞吐量和延迟，并向intervals.hlog写入区间直方图
+ * @author sh
+ */
+class LoadDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final String ALL = "all";
+
+    private final LoadProperties properties;
+
+    private final File outputDir;
+
+    private final List<RequestSpec> specs;
+
+    private final List<RequestStats> stats = new ArrayList<>();
+
+    private final RequestStats all = new RequestStats(ALL);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final CloseableHttpAsyncClient client;
+
+    private long startNanos;
+
+    private long startMillis;
+
+    private long measureStartNanos;
+
+    private long maxLagNanos;
+
+    LoadDriver(LoadProperties properties, File outputDir) {
+        this.properties = properties;
+        this.outputDir = outputDir;
+        this.specs = properties.getRequests();
+        specs.forEach(spec -> stats.add(new RequestStats(spec.getName())));
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(properties.getTimeoutMillis())
+                .setSocketTimeout(properties.getTimeoutMillis())
+                .setConnectionRequestTimeout(properties.getTimeoutMillis())
+                .build();
+        this.client = HttpAsyncClients.custom()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    /**
+     * 执行预热和正式压测，返回时所有请求均已完成或超时
+     * @return 每类请求的统计，最后一项为全部请求的汇总
+     */
+    List<RequestStats> run() throws IOException, InterruptedException {
+        client.start();
+        RequestMix mix = new RequestMix(specs, properties.getIdRange(), properties.getSeed());
+        try (PrintStream throughput = new PrintStream(new File(outputDir, "throughput.csv"), "UTF-8");
+             PrintStream hlog = new PrintStream(new File(outputDir, "intervals.hlog"), "UTF-8")) {
+            awaitTarget(mix);
+            throughput.println("elapsed_s,phase,name,intended,completed,errors,throughput_rps,p50_ms,p99_ms,max_ms");
+            HistogramLogWriter logWriter = new HistogramLogWriter(hlog);
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "load-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            startMillis = System.currentTimeMillis();
+            startNanos = System.nanoTime();
+            measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(properties.getWarmupSeconds());
+            long endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(properties.getDurationSeconds());
+            logWriter.outputStartTime(startMillis);
+            logWriter.outputLegend();
+            long[] lastReportNanos = {startNanos};
+            reporter.scheduleAtFixedRate(() -> lastReportNanos[0] = report(throughput, logWriter, lastReportNanos[0]),
+                    properties.getReportIntervalMillis(), properties.getReportIntervalMillis(), TimeUnit.MILLISECONDS);
+            logger.info("load started, target:{}, rate:{}/s, warmup:{}s, duration:{}s", properties.getTarget(),
+                    properties.getRate(), properties.getWarmupSeconds(), properties.getDurationSeconds());
+
+            double periodNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+            for (long i = 0; ; i++) {
+                long intended = startNanos + (long) (i * periodNanos);
+                if (intended >= endNanos) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    maxLagNanos = Math.max(maxLagNanos, -wait);
+                }
+                send(mix, intended);
+            }
+
+            awaitInFlight();
+            reporter.shutdown();
+            reporter.awaitTermination(properties.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            report(throughput, logWriter, lastReportNanos[0]);
+        } finally {
+            client.close();
+        }
+        logger.info("load finished, max scheduling lag:{}ms, unfinished:{}",
+                TimeUnit.NANOSECONDS.toMillis(maxLagNanos), inFlight.get());
+        List<RequestStats> result = new ArrayList<>(stats);
+        result.add(all);
+        return result;
+    }
+
+    private void send(RequestMix mix, long intended) {
+        int index = mix.next();
+        RequestSpec spec = specs.get(index);
+        RequestStats requestStats = stats.get(index);
+        HttpUriRequest request = request(spec, mix.resolve(spec.getPath()));
+        boolean measured = intended >= measureStartNanos;
+        requestStats.intended();
+        all.intended();
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        client.execute(request, new FutureCallback<HttpResponse>() {
+
+            @Override
+            public void completed(HttpResponse response) {
+                finish(response.getStatusLine().getStatusCode() >= 400);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                logger.debug("request failed, name:{}, error:{}", spec.getName(), ex.toString());
+                finish(true);
+            }
+
+            @Override
+            public void cancelled() {
+                finish(true);
+            }
+
+            private void finish(boolean error) {
+                long completed = System.nanoTime();
+                requestStats.record(intended, sent, completed, error, measured);
+                all.record(intended, sent, completed, error, measured);
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private HttpUriRequest request(RequestSpec spec, String path) {
+        RequestBuilder builder = RequestBuilder.create(spec.getMethod()).setUri(properties.getTarget() + path);
+        spec.getHeaders().forEach(builder::addHeader);
+        if (spec.getBody() != null) {
+            builder.setEntity(new StringEntity(spec.getBody(), ContentType.parse(spec.getContentType())));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 用第一类请求探测被测服务，直到返回成功，被测服务仍在注册或预热时不开始计时
+     */
+    private void awaitTarget(RequestMix mix) throws InterruptedException {
+        RequestSpec spec = specs.get(0);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(properties.getAwaitTargetSeconds());
+        String lastError = null;
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse response = client.execute(request(spec, mix.resolve(spec.getPath())), null)
+                        .get(properties.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+                int status = response.getStatusLine().getStatusCode();
+                if (status < 400) {
+                    return;
+                }
+                lastError = "status " + status;
+            } catch (Exception e) {
+                lastError = e.toString();
+            }
+            TimeUnit.SECONDS.sleep(1);
+        }
+        throw new IllegalStateException("target not available: " + properties.getTarget() + ", " + lastError);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMillis() * 2L);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    /**
+     * @return 本次采样的时间，作为下一次采样区间的起点
+     */
+    private long report(PrintStream throughput, HistogramLogWriter logWriter, long lastNanos) {
+        long now = System.nanoTime();
+        double seconds = (now - lastNanos) / 1e9;
+        double elapsed = (now - startNanos) / 1e9;
+        String phase = now <= measureStartNanos ? "warmup" : "measure";
+        List<RequestStats> sampled = new ArrayList<>(stats);
+        sampled.add(all);
+        for (RequestStats requestStats : sampled) {
+            RequestStats.Interval interval = requestStats.sampleInterval();
+            Histogram histogram = interval.histogram;
+            throughput.printf("%.3f,%s,%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f%n", elapsed, phase, requestStats.getName(),
+                    interval.intended, histogram.getTotalCount(), interval.errors,
+                    histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+            if (histogram.getTotalCount() > 0) {
+                logWriter.outputIntervalHistogram((histogram.getStartTimeStamp() - startMillis) / 1000.0,
+                        (histogram.getEndTimeStamp() - startMillis) / 1000.0, histogram, 1000.0);
+            }
+        }
+        throughput.flush();
+        return now;
+    }
+}
@@ -0,0 +1,184 @@
+package cn.sh.loadtest.driver;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "load")
+public class LoadProperties {
+
+    /**
+     * 被测服务地址
+     */
+    private String target;
+
+    /**
+     * 固定到达速率，每秒请求数，与响应快慢无关
+     */
+    private double rate = 200;
+
+    /**
+     * 预热时长，预热阶段的请求只出现在吞吐量曲线中，不计入最终报告
+     */
+    private int warmupSeconds = 10;
+
+    /**
+     * 正式压测时长
+     */
+    private int durationSeconds = 60;
+
+    private int maxConnections = 1000;
+
+    private int timeoutMillis = 5000;
+
+    /**
+     * 等待被测服务可用的最长时间
+     */
+    private int awaitTargetSeconds = 180;
+
+    /**
+     * 路径中{id}的取值范围
+     */
+    private int idRange = 1000;
+
+    /**
+     * 随机数种子，相同种子生成相同的请求序列，便于对比
+     */
+    private long seed = 1;
+
+    /**
+     * 吞吐量曲线和区间直方图的采样间隔
+     */
+    private long reportIntervalMillis = 1000;
+
+    private String outputDir = "target/load-test";
+
+    /**
+     * 本次结果的目录名，默认为启动时间
+     */
+    private String runName;
+
+    /**
+     * 对比基线，之前某次结果的目录
+     */
+    private String compareWith;
+
+    private List<RequestSpec> requests = new ArrayList<>();
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getAwaitTargetSeconds() {
+        return awaitTargetSeconds;
+    }
+
+    public void setAwaitTargetSeconds(int awaitTargetSeconds) {
+        this.awaitTargetSeconds = awaitTargetSeconds;
+    }
+
+    public int getIdRange() {
+        return idRange;
+    }
+
+    public void setIdRange(int idRange) {
+        this.idRange = idRange;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getReportIntervalMillis() {
+        return reportIntervalMillis;
+    }
+
+    public void setReportIntervalMillis(long reportIntervalMillis) {
+        this.reportIntervalMillis = reportIntervalMillis;
+    }
+
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(String outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public String getRunName() {
+        return runName;
+    }
+
+    public void setRunName(String runName) {
+        this.runName = runName;
+    }
+
+    public String getCompareWith() {
+        return compareWith;
+    }
+
+    public void setCompareWith(String compareWith) {
+        this.compareWith = compareWith;
+    }
+
+    public List<RequestSpec> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(List<RequestSpec> requests) {
+        this.requests = requests;
+    }
+}
@@ -0,0 +1,99 @@
+package cn.sh.loadtest.driver;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测结果
+ * latency-&lt;name&gt;.hgrm: 校正后的延迟分布(毫秒)，可以直接用HdrHistogram的plotFiles.html绘图对比
+ * uncorrected-&lt;name&gt;.hgrm: 未校正的延迟分布
+ * summary.csv: 每类请求的吞吐量和关键百分位，指定基线时生成comparison.csv
+ * @author sh
+ */
+final class LoadReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadReport.class);
+
+    private static final String SUMMARY = "summary.csv";
+
+    private static final String HEADER = "name,requests,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p99.9_ms,max_ms,uncorrected_p99_ms";
+
+    private LoadReport() {
+    }
+
+    static void write(File outputDir, List<RequestStats> stats, int durationSeconds) throws IOException {
+        try (PrintStream summary = new PrintStream(new File(outputDir, SUMMARY), "UTF-8")) {
+            summary.println(HEADER);
+            for (RequestStats requestStats : stats) {
+                Histogram latency = requestStats.getLatency();
+                Histogram uncorrected = requestStats.getUncorrected();
+                writeDistribution(new File(outputDir, "latency-" + requestStats.getName() + ".hgrm"), latency);
+                writeDistribution(new File(outputDir, "uncorrected-" + requestStats.getName() + ".hgrm"), uncorrected);
+                String line = String.format("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f", requestStats.getName(),
+                        latency.getTotalCount(), requestStats.getErrors(),
+                        (double) latency.getTotalCount() / durationSeconds,
+                        millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                        latency.getMaxValue() / 1000.0, millis(uncorrected, 99));
+                summary.println(line);
+                logger.info("{}", line);
+            }
+        }
+    }
+
+    /**
+     * 与基线逐项对比，输出comparison.csv，变化为正表示本次数值更大
+     */
+    static void compare(File outputDir, File baselineDir) throws IOException {
+        Map<String, String[]> baseline = readSummary(new File(baselineDir, SUMMARY));
+        Map<String, String[]> current = readSummary(new File(outputDir, SUMMARY));
+        String[] columns = HEADER.split(",");
+        try (PrintStream comparison = new PrintStream(new File(outputDir, "comparison.csv"), "UTF-8")) {
+            comparison.println("name,metric,baseline,current,change_percent");
+            for (Map.Entry<String, String[]> entry : current.entrySet()) {
+                String[] base = baseline.get(entry.getKey());
+                if (base == null) {
+                    continue;
+                }
+                for (int i = 1; i < columns.length; i++) {
+                    double before = Double.parseDouble(base[i]);
+                    double after = Double.parseDouble(entry.getValue()[i]);
+                    double change = before == 0 ? 0 : (after - before) * 100 / before;
+                    String line = String.format("%s,%s,%s,%s,%.1f", entry.getKey(), columns[i], base[i],
+                            entry.getValue()[i], change);
+                    comparison.println(line);
+                    logger.info("{}", line);
+                }
+            }
+        }
+    }
+
+    private static Map<String, String[]> readSummary(File file) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] values = line.split(",");
+            rows.put(values[0], values);
+        }
+        return rows;
+    }
+
+    private static void writeDistribution(File file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(file, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,45 @@
+package cn.sh.loadtest.driver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 启动后执行一次压测并输出报告，完成后进程退出
+ * @author sh
+ */
+public class LoadTestRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private final LoadProperties properties;
+
+    public LoadTestRunner(LoadProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        if (properties.getTarget() == null || properties.getRequests().isEmpty()) {
+            throw new IllegalStateException("load.target and load.requests are required, "
+                    + "activate one of the gateway, feign or ribbon profiles");
+        }
+        String runName = properties.getRunName() != null ? properties.getRunName()
+                : new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File outputDir = new File(properties.getOutputDir(), runName);
+        if (!outputDir.mkdirs() && !outputDir.isDirectory()) {
+            throw new IllegalStateException("can not create " + outputDir);
+        }
+        List<RequestStats> stats = new LoadDriver(properties, outputDir).run();
+        LoadReport.write(outputDir, stats, properties.getDurationSeconds());
+        if (properties.getCompareWith() != null) {
+            LoadReport.compare(outputDir, new File(properties.getCompareWith()));
+        }
+        logger.info("report written to {}", outputDir.getAbsolutePath());
+    }
+}
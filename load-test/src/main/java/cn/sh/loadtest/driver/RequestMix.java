@@ -0,0 +1,57 @@
+package cn.sh.loadtest.driver;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按权重随机选择请求，只在发送线程中使用，固定种子时请求序列可重现
+ * @author sh
+ */
+class RequestMix {
+
+    private final int[] cumulativeWeights;
+
+    private final int totalWeight;
+
+    private final int idRange;
+
+    private final Random random;
+
+    RequestMix(List<RequestSpec> specs, int idRange, long seed) {
+        this.cumulativeWeights = new int[specs.size()];
+        int total = 0;
+        for (int i = 0; i < specs.size(); i++) {
+            if (specs.get(i).getWeight() < 0) {
+                throw new IllegalArgumentException("negative weight: " + specs.get(i).getName());
+            }
+            total += specs.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("no request configured, set load.requests");
+        }
+        this.totalWeight = total;
+        this.idRange = idRange;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return 选中请求的下标
+     */
+    int next() {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String resolve(String path) {
+        if (path.indexOf('{') < 0) {
+            return path;
+        }
+        return path.replace("{id}", String.valueOf(1 + random.nextInt(idRange)));
+    }
+}
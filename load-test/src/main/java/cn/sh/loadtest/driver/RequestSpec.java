@@ -0,0 +1,90 @@
+package cn.sh.loadtest.driver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求组合中的一类请求
+ * @author sh
+ */
+public class RequestSpec {
+
+    /**
+     * 报告中使用的名称
+     */
+    private String name;
+
+    private String method = "GET";
+
+    /**
+     * 相对于load.target的路径，{id}替换为[1, load.id-range]之间的随机数
+     */
+    private String path;
+
+    /**
+     * 在请求组合中的权重
+     */
+    private int weight = 1;
+
+    private String body;
+
+    private String contentType = "application/json";
+
+    private Map<String, String> headers = new LinkedHashMap<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+}
@@ -0,0 +1,103 @@
+package cn.sh.loadtest.driver;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一类请求的统计，延迟单位为微秒
+ * latency从计划发送时间开始计算，被测服务变慢导致请求晚发出时，等待的时间同样计入，消除协调遗漏(coordinated omission)
+ * uncorrected从实际发出时间开始计算，等价于闭环压测工具报告的结果，两者的差距说明了发送端积压的程度
+ * @author sh
+ */
+class RequestStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+
+    private final Recorder interval = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final ConcurrentHistogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    private final ConcurrentHistogram uncorrected = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+    private final AtomicLong intervalIntended = new AtomicLong();
+
+    private final AtomicLong intervalErrors = new AtomicLong();
+
+    private final LongAdder errors = new LongAdder();
+
+    private Histogram recycled;
+
+    RequestStats(String name) {
+        this.name = name;
+    }
+
+    void intended() {
+        intervalIntended.incrementAndGet();
+    }
+
+    /**
+     * @param measured 计划发送时间是否在正式压测阶段
+     */
+    void record(long intendedNanos, long sentNanos, long completedNanos, boolean error, boolean measured) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos);
+        interval.recordValue(latencyMicros);
+        if (error) {
+            intervalErrors.incrementAndGet();
+        }
+        if (measured) {
+            latency.recordValue(latencyMicros);
+            uncorrected.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+
+    /**
+     * 取出上一次调用以来完成的请求，只由报告线程调用，返回的直方图在下一次调用时被复用
+     */
+    Interval sampleInterval() {
+        Histogram histogram = interval.getIntervalHistogram(recycled);
+        recycled = histogram;
+        histogram.setTag(name);
+        return new Interval(histogram, intervalIntended.getAndSet(0), intervalErrors.getAndSet(0));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Histogram getLatency() {
+        return latency;
+    }
+
+    Histogram getUncorrected() {
+        return uncorrected;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    static final class Interval {
+
+        final Histogram histogram;
+
+        final long intended;
+
+        final long errors;
+
+        private Interval(Histogram histogram, long intended, long errors) {
+            this.histogram = histogram;
+            this.intended = intended;
+            this.errors = errors;
+        }
+    }
+}
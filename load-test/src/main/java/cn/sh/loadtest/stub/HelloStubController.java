@@ -0,0 +1,48 @@
+package cn.sh.loadtest.stub;
+
+import cn.sh.common.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * hello-service桩，接口与hello-service一致，另外提供ribbon-consumer调用的/hello
+ * @author sh
+ */
+@Profile("stubs")
+@RestController
+public class HelloStubController {
+
+    @Autowired
+    private StubResponder stubResponder;
+
+    @Autowired
+    private StubProperties stubProperties;
+
+    @GetMapping("/feignHello")
+    public DeferredResult<String> hello() {
+        return stubResponder.respond(stubProperties.getHelloDelayMillis(), () -> "Hello World");
+    }
+
+    @GetMapping({"/hello", "/hello1"})
+    public DeferredResult<String> hello(@RequestParam String name) {
+        return stubResponder.respond(stubProperties.getHelloDelayMillis(), () -> "Hello " + name);
+    }
+
+    @GetMapping("/hello2")
+    public DeferredResult<User> hello(@RequestHeader String name, @RequestHeader Integer age) {
+        return stubResponder.respond(stubProperties.getHelloDelayMillis(), () -> new User(name, age));
+    }
+
+    @PostMapping("/hello3")
+    public DeferredResult<String> hello(@RequestBody User user) {
+        return stubResponder.respond(stubProperties.getHelloDelayMillis(),
+                () -> "Hello " + user.getName() + ", " + user.getAge());
+    }
+}
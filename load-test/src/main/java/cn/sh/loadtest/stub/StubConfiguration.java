@@ -0,0 +1,45 @@
+package cn.sh.loadtest.stub;
+
+import cn.sh.common.codec.UserHttpMessageConverter;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 内嵌注册中心和桩服务，只在stubs profile下生效
+ * 桩与注册中心共用一个端口，hello-service和user-service的接口路径互不冲突
+ * @author sh
+ */
+@Profile("stubs")
+@EnableEurekaServer
+@Configuration
+@EnableConfigurationProperties(StubProperties.class)
+public class StubConfiguration implements WebMvcConfigurer {
+
+    @Bean
+    public StubResponder stubResponder(StubProperties stubProperties) {
+        return new StubResponder(stubProperties.getTimerThreads());
+    }
+
+    @Bean
+    public StubRegistrar stubRegistrar(PeerAwareInstanceRegistry registry, StubProperties stubProperties,
+                                       @Value("${server.port}") int port) {
+        return new StubRegistrar(registry, stubProperties.getHostName(), port);
+    }
+
+    /**
+     * feign-consumer以application/x-user发送/hello3的请求体
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new UserHttpMessageConverter());
+    }
+}
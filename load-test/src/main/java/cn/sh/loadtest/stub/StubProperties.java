@@ -0,0 +1,63 @@
+package cn.sh.loadtest.stub;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 桩服务配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "stub")
+public class StubProperties {
+
+    /**
+     * hello-service桩的响应延迟
+     */
+    private long helloDelayMillis;
+
+    /**
+     * user-service桩的响应延迟
+     */
+    private long userDelayMillis;
+
+    /**
+     * 完成延迟响应的定时线程数
+     */
+    private int timerThreads = 2;
+
+    /**
+     * 桩实例注册到注册中心时使用的主机名
+     */
+    private String hostName = "localhost";
+
+    public long getHelloDelayMillis() {
+        return helloDelayMillis;
+    }
+
+    public void setHelloDelayMillis(long helloDelayMillis) {
+        this.helloDelayMillis = helloDelayMillis;
+    }
+
+    public long getUserDelayMillis() {
+        return userDelayMillis;
+    }
+
+    public void setUserDelayMillis(long userDelayMillis) {
+        this.userDelayMillis = userDelayMillis;
+    }
+
+    public int getTimerThreads() {
+        return timerThreads;
+    }
+
+    public void setTimerThreads(int timerThreads) {
+        this.timerThreads = timerThreads;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+    }
+}
@@ -0,0 +1,69 @@
+package cn.sh.loadtest.stub;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 注册表可用后直接在本进程的注册表中登记桩实例
+ * 租约时长设置为一天，桩实例无需续约，也不会被剔除
+ * @author sh
+ */
+public class StubRegistrar implements ApplicationListener<EurekaRegistryAvailableEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubRegistrar.class);
+
+    private static final int LEASE_DURATION_SECONDS = 24 * 60 * 60;
+
+    private static final String[] SERVICES = {"hello-service", "user-service"};
+
+    private final PeerAwareInstanceRegistry registry;
+
+    private final String hostName;
+
+    private final int port;
+
+    public StubRegistrar(PeerAwareInstanceRegistry registry, String hostName, int port) {
+        this.registry = registry;
+        this.hostName = hostName;
+        this.port = port;
+    }
+
+    @Override
+    public void onApplicationEvent(EurekaRegistryAvailableEvent event) {
+        for (String service : SERVICES) {
+            registry.register(instance(service), false);
+            logger.info("stub registered, service:{}, address:{}:{}", service, hostName, port);
+        }
+    }
+
+    private InstanceInfo instance(String service) {
+        String baseUrl = "http://" + hostName + ":" + port;
+        return InstanceInfo.Builder.newBuilder()
+                .setInstanceId("stub:" + service + ":" + port)
+                .setAppName(service.toUpperCase())
+                .setHostName(hostName)
+                .setIPAddr("127.0.0.1")
+                .setPort(port)
+                .enablePort(InstanceInfo.PortType.UNSECURE, true)
+                .enablePort(InstanceInfo.PortType.SECURE, false)
+                .setVIPAddress(service)
+                .setSecureVIPAddress(service)
+                .setHomePageUrl(null, baseUrl + "/")
+                .setStatusPageUrl(null, baseUrl + "/actuator/info")
+                .setHealthCheckUrls(null, baseUrl + "/actuator/health", null)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setRenewalIntervalInSecs(LEASE_DURATION_SECONDS)
+                        .setDurationInSecs(LEASE_DURATION_SECONDS)
+                        .build())
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .build();
+    }
+}
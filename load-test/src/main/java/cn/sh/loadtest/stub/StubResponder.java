@@ -0,0 +1,43 @@
+package cn.sh.loadtest.stub;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 按固定延迟完成桩响应，延迟由定时器完成DeferredResult，不占用容器线程，桩本身不会成为瓶颈
+ * @author sh
+ */
+public class StubResponder implements DisposableBean {
+
+    private final ScheduledExecutorService timer;
+
+    public StubResponder(int timerThreads) {
+        AtomicInteger index = new AtomicInteger();
+        this.timer = Executors.newScheduledThreadPool(Math.max(1, timerThreads), r -> {
+            Thread thread = new Thread(r, "stub-timer-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> DeferredResult<T> respond(long delayMillis, Supplier<T> body) {
+        DeferredResult<T> result = new DeferredResult<>();
+        if (delayMillis <= 0) {
+            result.setResult(body.get());
+        } else {
+            timer.schedule(() -> result.setResult(body.get()), delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
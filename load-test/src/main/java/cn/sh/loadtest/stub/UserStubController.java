@@ -0,0 +1,55 @@
+package cn.sh.loadtest.stub;
+
+import cn.sh.common.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * user-service桩，按id构造用户，不保存任何数据
+ * @author sh
+ */
+@Profile("stubs")
+@RestController
+public class UserStubController {
+
+    @Autowired
+    private StubResponder stubResponder;
+
+    @Autowired
+    private StubProperties stubProperties;
+
+    @GetMapping("/users/{id}")
+    public DeferredResult<User> getUserById(@PathVariable Long id) {
+        return stubResponder.respond(stubProperties.getUserDelayMillis(), () -> user(id));
+    }
+
+    @GetMapping("/users")
+    public DeferredResult<List<User>> findAllUser(@RequestParam("ids") List<Long> ids) {
+        return stubResponder.respond(stubProperties.getUserDelayMillis(), () -> {
+            List<User> users = new ArrayList<>(ids.size());
+            ids.forEach(id -> users.add(user(id)));
+            return users;
+        });
+    }
+
+    @PostMapping("/user")
+    public DeferredResult<User> saveUser(@RequestBody User user) {
+        return stubResponder.respond(stubProperties.getUserDelayMillis(), () -> user);
+    }
+
+    private static User user(Long id) {
+        User user = new User("sh" + id, (int) (20 + id % 50));
+        user.setId(id);
+        return user;
+    }
+}
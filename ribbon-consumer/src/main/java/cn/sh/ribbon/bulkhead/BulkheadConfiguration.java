@@ -0,0 +1,27 @@
+package cn.sh.ribbon.bulkhead;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @author sh
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(BulkheadProperties.class)
+@ConditionalOnProperty(prefix = "bulkhead", name = "enabled", matchIfMissing = true)
+public class BulkheadConfiguration {
+
+    @Bean
+    public BulkheadController bulkheadController(BulkheadProperties bulkheadProperties) {
+        return new BulkheadController(bulkheadProperties);
+    }
+
+    @Bean
+    public BulkheadEndpoint bulkheadEndpoint(BulkheadController bulkheadController) {
+        return new BulkheadEndpoint(bulkheadController);
+    }
+}
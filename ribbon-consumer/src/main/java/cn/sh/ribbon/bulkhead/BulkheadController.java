@@ -0,0 +1,123 @@
+package cn.sh.ribbon.bulkhead;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixThreadPoolKey;
+import com.netflix.hystrix.HystrixThreadPoolMetrics;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 根据观测到的到达率和延迟，按照利特尔法则(并发数 = 到达率 * 延迟)调整Hystrix线程池的核心线程数和队列阈值
+ * Hystrix在每次执行命令时读取coreSize和queueSizeRejectionThreshold，因此修改Archaius属性即可在运行时生效
+ * Hystrix默认只调用setCorePoolSize，JDK 9起核心线程数超过最大线程数会抛出异常，
+ * 因此启动时将各线程池的maximumSize固定为maxCoreSize，调整时只在[minCoreSize, maxCoreSize]内修改coreSize
+ * @author sh
+ */
+public class BulkheadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadController.class);
+
+    private final BulkheadProperties properties;
+
+    private final Map<String, PoolState> states = new ConcurrentHashMap<>();
+
+    public BulkheadController(BulkheadProperties properties) {
+        this.properties = properties;
+        AbstractConfiguration config = ConfigurationManager.getConfigInstance();
+        for (String pool : properties.getPools()) {
+            // 有界队列未满时不会创建超过coreSize的线程，并发数仍由coreSize限制；没有队列时线程数会直接增长到maximumSize
+            String prefix = "hystrix.threadpool." + pool + ".";
+            if (config.getInt(prefix + "maxQueueSize", config.getInt("hystrix.threadpool.default.maxQueueSize", -1)) <= 0) {
+                logger.warn("hystrix thread pool {} has no queue, threads may grow to maximumSize {}",
+                        pool, properties.getMaxCoreSize());
+            }
+            config.setProperty(prefix + "allowMaximumSizeToDivergeFromCoreSize", true);
+            config.setProperty(prefix + "maximumSize", properties.getMaxCoreSize());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bulkhead.interval-millis:10000}")
+    public void adjust() {
+        for (String pool : properties.getPools()) {
+            HystrixThreadPoolMetrics metrics = HystrixThreadPoolMetrics.getInstance(HystrixThreadPoolKey.Factory.asKey(pool));
+            if (metrics == null) {
+                // 线程池在第一次执行命令时才会创建
+                continue;
+            }
+            adjust(pool, metrics);
+        }
+    }
+
+    private void adjust(String pool, HystrixThreadPoolMetrics metrics) {
+        HystrixThreadPoolProperties poolProperties = metrics.getProperties();
+        int coreSize = poolProperties.coreSize().get();
+        int queueThreshold = poolProperties.queueSizeRejectionThreshold().get();
+        double windowSeconds = poolProperties.metricsRollingStatisticalWindowInMilliseconds().get() / 1000.0;
+        long executed = metrics.getRollingCountThreadsExecuted();
+        long rejected = metrics.getRollingCountThreadsRejected();
+        double arrivalRate = (executed + rejected) / windowSeconds;
+        double latency = latencyMillis(pool);
+
+        PoolState state = states.computeIfAbsent(pool, key -> new PoolState());
+        state.update(coreSize, queueThreshold, metrics.getCurrentActiveCount().intValue(),
+                metrics.getCurrentQueueSize().intValue(), arrivalRate, latency, rejected);
+
+        double concurrency = arrivalRate * latency / 1000.0;
+        int targetCore = (int) Math.ceil(concurrency * properties.getHeadroom());
+        String cause = String.format("rate=%.1f/s, latency=%.0fms, L=%.2f", arrivalRate, latency, concurrency);
+        if (rejected > 0) {
+            // 出现拒绝说明估算偏小，至少扩大一半
+            targetCore = Math.max(targetCore, coreSize + Math.max(1, coreSize / 2));
+            cause += ", rejected=" + rejected;
+        }
+        if (targetCore < coreSize) {
+            targetCore = Math.max(targetCore, (int) Math.floor(coreSize * (1 - properties.getMaxShrinkRatio())));
+        }
+        targetCore = clamp(targetCore, properties.getMinCoreSize(), properties.getMaxCoreSize());
+        // 启动前已创建的线程池要到下一次执行命令时才会应用新的maximumSize，在此之前不超过当前最大线程数
+        targetCore = Math.min(targetCore, Math.max(coreSize, metrics.getMaximumPoolSize().intValue()));
+        int targetQueue = clamp((int) Math.ceil(arrivalRate * properties.getMaxQueueWaitMillis() / 1000.0),
+                properties.getMinQueueThreshold(), properties.getMaxQueueThreshold());
+
+        if (targetCore == coreSize && targetQueue == queueThreshold) {
+            return;
+        }
+        ConfigurationManager.getConfigInstance().setProperty("hystrix.threadpool." + pool + ".coreSize", targetCore);
+        ConfigurationManager.getConfigInstance()
+                .setProperty("hystrix.threadpool." + pool + ".queueSizeRejectionThreshold", targetQueue);
+        String reason = String.format("coreSize %d->%d, queueThreshold %d->%d (%s)",
+                coreSize, targetCore, queueThreshold, targetQueue, cause);
+        state.resized(reason);
+        logger.info("resize hystrix thread pool {}: {}", pool, reason);
+    }
+
+    /**
+     * 线程池中所有命令的最大延迟百分位，没有数据时返回0
+     */
+    private double latencyMillis(String pool) {
+        double latency = 0;
+        for (HystrixCommandMetrics commandMetrics : HystrixCommandMetrics.getInstances()) {
+            if (pool.equals(commandMetrics.getThreadPoolKey().name())) {
+                latency = Math.max(latency, commandMetrics.getExecutionTimePercentile(properties.getLatencyPercentile()));
+            }
+        }
+        return latency;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public Map<String, PoolState> getStates() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(states));
+    }
+}
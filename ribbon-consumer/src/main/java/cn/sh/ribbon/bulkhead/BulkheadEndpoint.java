@@ -0,0 +1,32 @@
+package cn.sh.ribbon.bulkhead;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+
+/**
+ * 查看Hystrix线程池当前大小、饱和度以及每次调整的原因
+ * GET /actuator/bulkheads, GET /actuator/bulkheads/{pool}
+ * @author sh
+ */
+@Endpoint(id = "bulkheads")
+public class BulkheadEndpoint {
+
+    private final BulkheadController bulkheadController;
+
+    public BulkheadEndpoint(BulkheadController bulkheadController) {
+        this.bulkheadController = bulkheadController;
+    }
+
+    @ReadOperation
+    public Map<String, PoolState> bulkheads() {
+        return bulkheadController.getStates();
+    }
+
+    @ReadOperation
+    public PoolState bulkhead(@Selector String pool) {
+        return bulkheadController.getStates().get(pool);
+    }
+}
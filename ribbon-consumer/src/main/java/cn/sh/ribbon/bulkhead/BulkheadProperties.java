@@ -0,0 +1,136 @@
+package cn.sh.ribbon.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hystrix线程池自动调整参数
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * 需要自动调整的线程池
+     */
+    private List<String> pools = new ArrayList<>(Arrays.asList("ThreadPoolKey", "findUserByIdThread", "userBatchGroup"));
+
+    /**
+     * 调整周期
+     */
+    private long intervalMillis = 10000;
+
+    private int minCoreSize = 2;
+
+    private int maxCoreSize = 50;
+
+    private int minQueueThreshold = 0;
+
+    /**
+     * 不能超过线程池启动时的maxQueueSize
+     */
+    private int maxQueueThreshold = 100;
+
+    /**
+     * 在利特尔法则估算的并发数上预留的余量
+     */
+    private double headroom = 1.5;
+
+    /**
+     * 使用的延迟百分位
+     */
+    private double latencyPercentile = 99;
+
+    /**
+     * 请求在队列中允许等待的时间，用于计算队列阈值
+     */
+    private long maxQueueWaitMillis = 100;
+
+    /**
+     * 每个周期最多缩小的比例，避免来回震荡
+     */
+    private double maxShrinkRatio = 0.25;
+
+    public List<String> getPools() {
+        return pools;
+    }
+
+    public void setPools(List<String> pools) {
+        this.pools = pools;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public int getMinCoreSize() {
+        return minCoreSize;
+    }
+
+    public void setMinCoreSize(int minCoreSize) {
+        this.minCoreSize = minCoreSize;
+    }
+
+    public int getMaxCoreSize() {
+        return maxCoreSize;
+    }
+
+    public void setMaxCoreSize(int maxCoreSize) {
+        this.maxCoreSize = maxCoreSize;
+    }
+
+    public int getMinQueueThreshold() {
+        return minQueueThreshold;
+    }
+
+    public void setMinQueueThreshold(int minQueueThreshold) {
+        this.minQueueThreshold = minQueueThreshold;
+    }
+
+    public int getMaxQueueThreshold() {
+        return maxQueueThreshold;
+    }
+
+    public void setMaxQueueThreshold(int maxQueueThreshold) {
+        this.maxQueueThreshold = maxQueueThreshold;
+    }
+
+    public double getHeadroom() {
+        return headroom;
+    }
+
+    public void setHeadroom(double headroom) {
+        this.headroom = headroom;
+    }
+
+    public double getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    public void setLatencyPercentile(double latencyPercentile) {
+        this.latencyPercentile = latencyPercentile;
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    public void setMaxQueueWaitMillis(long maxQueueWaitMillis) {
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+
+    public double getMaxShrinkRatio() {
+        return maxShrinkRatio;
+    }
+
+    public void setMaxShrinkRatio(double maxShrinkRatio) {
+        this.maxShrinkRatio = maxShrinkRatio;
+    }
+}
@@ -0,0 +1,95 @@
+package cn.sh.ribbon.bulkhead;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 单个线程池的当前状态和最近的调整记录
+ * @author sh
+ */
+public class PoolState {
+
+    private static final int MAX_HISTORY = 20;
+
+    private int coreSize;
+
+    private int queueThreshold;
+
+    private int activeCount;
+
+    private int queueSize;
+
+    private double arrivalRate;
+
+    private double latencyMillis;
+
+    private long rejected;
+
+    private String lastReason;
+
+    private final Deque<String> history = new ArrayDeque<>();
+
+    synchronized void update(int coreSize, int queueThreshold, int activeCount, int queueSize, double arrivalRate,
+                             double latencyMillis, long rejected) {
+        this.coreSize = coreSize;
+        this.queueThreshold = queueThreshold;
+        this.activeCount = activeCount;
+        this.queueSize = queueSize;
+        this.arrivalRate = arrivalRate;
+        this.latencyMillis = latencyMillis;
+        this.rejected = rejected;
+    }
+
+    synchronized void resized(String reason) {
+        this.lastReason = reason;
+        history.addFirst(System.currentTimeMillis() + " " + reason);
+        if (history.size() > MAX_HISTORY) {
+            history.removeLast();
+        }
+    }
+
+    public synchronized int getCoreSize() {
+        return coreSize;
+    }
+
+    public synchronized int getQueueThreshold() {
+        return queueThreshold;
+    }
+
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    public synchronized int getQueueSize() {
+        return queueSize;
+    }
+
+    /**
+     * 线程饱和度，活跃线程数与核心线程数之比
+     */
+    public synchronized double getSaturation() {
+        return coreSize == 0 ? 0 : (double) activeCount / coreSize;
+    }
+
+    public synchronized double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public synchronized double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    public synchronized String getLastReason() {
+        return lastReason;
+    }
+
+    public synchronized List<String> getHistory() {
+        return new ArrayList<>(history);
+    }
+}
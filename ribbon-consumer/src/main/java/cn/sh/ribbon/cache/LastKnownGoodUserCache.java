@@ -0,0 +1,119 @@
+package cn.sh.ribbon.cache;
+
+import cn.sh.common.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 最近一次成功获取的User，服务降级时优先返回该数据(stale-while-error)，只有缓存未命中时才返回默认User
+ * 按最近最少使用淘汰，条目数量不超过user.fallback-cache.max-entries
+ * @author sh
+ */
+@Component
+public class LastKnownGoodUserCache {
+
+    private static final int NO_AGE = Integer.MIN_VALUE;
+
+    private final Map<Long, Entry> entries;
+
+    private final Counter staleServed;
+
+    private final Counter defaultServed;
+
+    private final DistributionSummary staleness;
+
+    public LastKnownGoodUserCache(@Value("${user.fallback-cache.max-entries:10000}") int maxEntries,
+                                  MeterRegistry meterRegistry) {
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.staleServed = meterRegistry.counter("user.fallback.served", "source", "stale");
+        this.defaultServed = meterRegistry.counter("user.fallback.served", "source", "default");
+        this.staleness = DistributionSummary.builder("user.fallback.staleness").baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("user.fallback.cache.size", this, LastKnownGoodUserCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 记录一次成功获取的User
+     */
+    public User put(User user) {
+        if (user != null && user.getId() != null) {
+            Entry entry = new Entry(user.getName(), user.getAge() == null ? NO_AGE : user.getAge(),
+                    System.currentTimeMillis());
+            synchronized (entries) {
+                entries.put(user.getId(), entry);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * 降级时获取User，缓存未命中时使用defaultUser
+     */
+    public User fallback(Long id, Supplier<User> defaultUser) {
+        Entry entry = id == null ? null : get(id);
+        if (entry == null) {
+            defaultServed.increment();
+            return defaultUser.get();
+        }
+        staleServed.increment();
+        staleness.record(entry.getStaleMillis());
+        return entry.toUser(id);
+    }
+
+    public Entry get(Long id) {
+        synchronized (entries) {
+            return entries.get(id);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public static class Entry {
+
+        private final String name;
+
+        private final int age;
+
+        private final long fetchedAt;
+
+        Entry(String name, int age, long fetchedAt) {
+            this.name = name;
+            this.age = age;
+            this.fetchedAt = fetchedAt;
+        }
+
+        /**
+         * 距离最近一次成功获取的时间
+         */
+        public long getStaleMillis() {
+            return System.currentTimeMillis() - fetchedAt;
+        }
+
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        User toUser(Long id) {
+            User user = new User(name, age == NO_AGE ? null : age);
+            user.setId(id);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package cn.sh.ribbon.client;
+
+import cn.sh.common.entity.User;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 批量获取User，响应体边读取边解析
+ * @author sh
+ */
+@Component
+public class UserBatchClient {
+
+    private static final String USERS_URL = "http://USER-SERVICE/users?ids={1}";
+
+    private static final RequestCallback ACCEPT_JSON = request ->
+            request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    public List<User> findAll(List<Long> idList) {
+        List<User> userList = new ArrayList<>(idList.size());
+        forEach(idList, userList::add);
+        return userList;
+    }
+
+    /**
+     * 每解析出一个User就交给consumer处理
+     * @return 解析出的User数量
+     */
+    public int forEach(List<Long> idList, Consumer<User> consumer) {
+        Integer count = restTemplate.execute(USERS_URL, HttpMethod.GET, ACCEPT_JSON,
+                response -> UserJsonReader.read(response.getBody(), consumer), join(idList));
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 解析到调用方复用的数组中
+     * @return 解析出的User数量
+     */
+    public int readInto(List<Long> idList, User[] buffer) {
+        Integer count = restTemplate.execute(USERS_URL, HttpMethod.GET, ACCEPT_JSON,
+                response -> UserJsonReader.readInto(response.getBody(), buffer), join(idList));
+        return count == null ? 0 : count;
+    }
+
+    private String join(List<Long> idList) {
+        return StringUtils.join(idList, ",");
+    }
+}
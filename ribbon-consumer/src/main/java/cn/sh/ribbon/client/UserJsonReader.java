@@ -0,0 +1,105 @@
+package cn.sh.ribbon.client;
+
+import cn.sh.common.entity.User;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 逐个token解析User数组，直接填充User对象，不经过中间的Map
+ * @author sh
+ */
+public final class UserJsonReader {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private UserJsonReader() {
+    }
+
+    /**
+     * 每解析出一个User立即回调，不等待整个响应体读取完成
+     * 回调中的User对象每次都是新建的，可以被调用方持有
+     * @return 解析出的User数量
+     */
+    public static int read(InputStream in, Consumer<User> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            expectArray(parser);
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                User user = new User();
+                readUser(parser, user);
+                consumer.accept(user);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 解析到调用方提供的数组中，数组中已有的User对象会被复用
+     * @return 解析出的User数量
+     * @throws IOException 响应中的User数量超过数组长度
+     */
+    public static int readInto(InputStream in, User[] buffer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            expectArray(parser);
+            int count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (count == buffer.length) {
+                    throw new IOException("user buffer overflow, capacity:" + buffer.length);
+                }
+                User user = buffer[count];
+                if (user == null) {
+                    user = new User();
+                    buffer[count] = user;
+                } else {
+                    reset(user);
+                }
+                readUser(parser, user);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    private static void expectArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new IOException("expected user array, but was:" + token);
+        }
+    }
+
+    private static void readUser(JsonParser parser, User user) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "id":
+                    user.setId(parser.getLongValue());
+                    break;
+                case "name":
+                    user.setName(parser.getText());
+                    break;
+                case "age":
+                    user.setAge(parser.getIntValue());
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+    }
+
+    private static void reset(User user) {
+        user.setId(null);
+        user.setName(null);
+        user.setAge(null);
+    }
+}
@@ -1,6 +1,7 @@
 package cn.sh.ribbon.command;
 
 import cn.sh.common.entity.User;
+import cn.sh.ribbon.cache.LastKnownGoodUserCache;
 import com.netflix.hystrix.*;
 import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategyDefault;
 import org.springframework.web.client.RestTemplate;
@@ -16,17 +17,20 @@ public class UserCommand extends HystrixCommand<User> {
 
     private Long id;
 
-    public UserCommand(RestTemplate restTemplate, Long id) {
+    private LastKnownGoodUserCache userCache;
+
+    public UserCommand(RestTemplate restTemplate, Long id, LastKnownGoodUserCache userCache) {
         super(Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey("GroupName"))
                 .andCommandKey(GETTER_KEY)
                 .andThreadPoolKey(HystrixThreadPoolKey.Factory.asKey("ThreadPoolKey")));
         this.restTemplate = restTemplate;
         this.id = id;
+        this.userCache = userCache;
     }
 
     @Override
     protected User run() throws Exception {
-        return restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
+        return userCache.put(restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id));
     }
 
     @Override
@@ -42,9 +46,11 @@ public class UserCommand extends HystrixCommand<User> {
 
     @Override
     protected User getFallback() {
-        User user = new User();
-        user.setId(1L);
-        user.setName("sh");
-        return user;
+        return userCache.fallback(id, () -> {
+            User user = new User();
+            user.setId(1L);
+            user.setName("sh");
+            return user;
+        });
     }
 }
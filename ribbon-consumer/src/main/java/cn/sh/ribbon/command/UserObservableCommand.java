@@ -1,6 +1,7 @@
 package cn.sh.ribbon.command;
 
 import cn.sh.common.entity.User;
+import cn.sh.ribbon.cache.LastKnownGoodUserCache;
 import com.netflix.hystrix.HystrixObservableCommand;
 import org.springframework.web.client.RestTemplate;
 import rx.Observable;
@@ -14,10 +15,13 @@ public class UserObservableCommand extends HystrixObservableCommand<User> {
 
     private Long id;
 
-    public UserObservableCommand (Setter setter, RestTemplate restTemplate, Long id) {
+    private LastKnownGoodUserCache userCache;
+
+    public UserObservableCommand (Setter setter, RestTemplate restTemplate, Long id, LastKnownGoodUserCache userCache) {
         super(setter);
         this.restTemplate = restTemplate;
         this.id = id;
+        this.userCache = userCache;
     }
 
     @Override
@@ -25,7 +29,7 @@ public class UserObservableCommand extends HystrixObservableCommand<User> {
         return Observable.create(subscriber -> {
             if (!subscriber.isUnsubscribed()) {
                 User user = restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
-                subscriber.onNext(user);
+                subscriber.onNext(userCache.put(user));
                 subscriber.onCompleted();
             }
         });
@@ -34,9 +38,12 @@ public class UserObservableCommand extends HystrixObservableCommand<User> {
     @Override
     protected Observable<User> resumeWithFallback() {
         Observable<User> userObservable = Observable.create(subscriber -> {
-            User user = new User();
-            user.setId(1L);
-            user.setName("sh");
+            User user = userCache.fallback(id, () -> {
+                User defaultUser = new User();
+                defaultUser.setId(1L);
+                defaultUser.setName("sh");
+                return defaultUser;
+            });
             subscriber.onNext(user);
             subscriber.onCompleted();
         });
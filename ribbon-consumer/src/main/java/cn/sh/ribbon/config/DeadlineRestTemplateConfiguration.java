@@ -0,0 +1,25 @@
+package cn.sh.ribbon.config;
+
+import cn.sh.common.deadline.DeadlineMetrics;
+import cn.sh.common.deadline.DeadlineRestTemplateInterceptor;
+import org.springframework.cloud.client.loadbalancer.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 截止时间传递: common模块的DeadlineConfiguration接收网关传入的截止时间并经Hystrix线程传递，
+ * 这里把截止时间交给@LoadBalanced RestTemplate，转发时扣除已经过去的时间
+ * @author sh
+ */
+@Configuration
+public class DeadlineRestTemplateConfiguration {
+
+    /**
+     * 应用到所有@LoadBalanced RestTemplate
+     */
+    @Bean
+    public RestTemplateCustomizer deadlineRestTemplateCustomizer(DeadlineMetrics deadlineMetrics) {
+        DeadlineRestTemplateInterceptor interceptor = new DeadlineRestTemplateInterceptor(deadlineMetrics);
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+}
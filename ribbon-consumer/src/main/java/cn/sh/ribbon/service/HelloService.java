@@ -1,6 +1,7 @@
 package cn.sh.ribbon.service;
 
 import cn.sh.common.entity.User;
+import cn.sh.ribbon.cache.LastKnownGoodUserCache;
 import cn.sh.ribbon.command.UserCommand;
 import cn.sh.ribbon.command.UserObservableCommand;
 import com.netflix.hystrix.HystrixCommandGroupKey;
@@ -35,6 +36,9 @@ public class HelloService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private LastKnownGoodUserCache userCache;
+
     /**
      * 使用@HystrixCommand注解指定回调方法
      * @param name
@@ -60,7 +64,7 @@ public class HelloService {
      * @return
      */
     public User getUserById(Long id) throws ExecutionException, InterruptedException {
-        UserCommand userCommand = new UserCommand(restTemplate, id);
+        UserCommand userCommand = new UserCommand(restTemplate, id, userCache);
         // 同步执行获取结果
 //        return userCommand.execute();
 
@@ -87,7 +91,7 @@ public class HelloService {
             commandKey = "findUserById", groupKey = "UserGroup", threadPoolKey = "findUserByIdThread")
     @CacheResult
     public User findUserById(@CacheKey("id") Long id) {
-        return restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
+        return userCache.put(restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id));
     }
 
     private Long findUserIdCacheKey(Long id) {
@@ -111,7 +115,7 @@ public class HelloService {
         return new AsyncResult<User>() {
             @Override
             public User invoke() {
-                return restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
+                return userCache.put(restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id));
             }
         };
     }
@@ -123,14 +127,14 @@ public class HelloService {
      */
     public Observable<User> observableGetUserById(Long id) {
         HystrixCommandGroupKey groupKey = HystrixCommandGroupKey.Factory.asKey("userKey");
-        UserCommand userCommand = new UserCommand(restTemplate, id);
+        UserCommand userCommand = new UserCommand(restTemplate, id, userCache);
         return userCommand.toObservable();
     }
 
     public Observable<User> observableCommandGetUserById(Long id) {
         HystrixCommandGroupKey groupKey = HystrixCommandGroupKey.Factory.asKey("userKey");
         com.netflix.hystrix.HystrixObservableCommand.Setter setter = com.netflix.hystrix.HystrixObservableCommand.Setter.withGroupKey(groupKey);
-        UserObservableCommand userObservableCommand = new UserObservableCommand(setter, restTemplate ,id);
+        UserObservableCommand userObservableCommand = new UserObservableCommand(setter, restTemplate ,id, userCache);
         return  userObservableCommand.observe();
     }
 
@@ -146,18 +150,25 @@ public class HelloService {
         return Observable.create(subscriber -> {
             if (!subscriber.isUnsubscribed()) {
                 User user = restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
-                subscriber.onNext(user);
+                subscriber.onNext(userCache.put(user));
                 subscriber.onCompleted();
             }
         });
     }
 
 
-    private User getDefaultUser() {
-        User user = new User();
-        user.setId(2L);
-        user.setName("sh");
-        return user;
+    /**
+     * 优先返回最近一次成功获取的User，未命中时返回默认User
+     * @param id
+     * @return
+     */
+    private User getDefaultUser(Long id) {
+        return userCache.fallback(id, () -> {
+            User user = new User();
+            user.setId(2L);
+            user.setName("sh");
+            return user;
+        });
     }
 
 }
@@ -1,11 +1,12 @@
 package cn.sh.ribbon.service.impl;
 
 import cn.sh.common.entity.User;
+import cn.sh.ribbon.cache.LastKnownGoodUserCache;
+import cn.sh.ribbon.client.UserBatchClient;
 import cn.sh.ribbon.service.UserService;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCollapser;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import com.netflix.hystrix.contrib.javanica.annotation.HystrixProperty;
-import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -18,16 +19,24 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private UserBatchClient userBatchClient;
+
+    @Autowired
+    private LastKnownGoodUserCache userCache;
+
     @Override
     @HystrixCollapser(batchMethod = "findAll",
             collapserProperties = {@HystrixProperty(name ="timerDelayInMilliseconds", value = "100")})
     public User find(Long id) {
-        return restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id);
+        return userCache.put(restTemplate.getForObject("http://USER-SERVICE/users/{1}", User.class, id));
     }
 
     @Override
     @HystrixCommand
     public List<User> findAll(List<Long> idList) {
-        return restTemplate.getForObject("http://USER-SERVICE/users?ids={1}", List.class, StringUtils.join(idList,","));
+        List<User> userList = userBatchClient.findAll(idList);
+        userList.forEach(userCache::put);
+        return userList;
     }
 }
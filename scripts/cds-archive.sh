@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# 以fast-startup profile训练运行一次服务，退出时生成类数据共享(CDS)归档，再以-Xshare:on启动一次确认归档可用
+# 用法: scripts/cds-archive.sh <模块目录> <启动类>
+# 由 mvn -P fast-startup package 自动调用，需要JDK 13+(-XX:ArchiveClassesAtExit)
+# CDS要求classpath中只有jar，不能有非空目录，因此先将target/classes打成target/<模块>-cds.jar，
+# 归档和之后的启动(scripts/startup-bench.sh)都使用该jar，jar被重新生成后归档随之失效，需要重新执行本脚本
+set -e
+
+module_dir=$1
+main_class=$2
+target="$module_dir/target"
+module=$(basename "$module_dir")
+archive="$target/$module.jsa"
+app_jar="$target/$module-cds.jar"
+
+rm -f "$archive" "$app_jar"
+jar cf "$app_jar" -C "$target/classes" .
+
+classpath="$app_jar:$(cat "$target/classpath.txt")"
+IFS=: read -ra entries <<< "$classpath"
+for entry in "${entries[@]}"; do
+    if [ -d "$entry" ]; then
+        echo "CDS classpath must only contain jars, found directory: $entry" >&2
+        exit 1
+    fi
+done
+
+run() {
+    java "$@" \
+        -Dspring.profiles.active=fast-startup \
+        -Dfast-startup.exit-after-start=true \
+        -Deureka.client.enabled=false \
+        -Dserver.port=0 \
+        -cp "$classpath" "$main_class"
+}
+
+run -XX:ArchiveClassesAtExit="$archive"
+
+# 归档不可用时-Xshare:on直接启动失败；再统计从动态归档加载的类数，确认服务自身和依赖的类确实来自归档
+log="$target/cds-check.log"
+run -Xshare:on -XX:SharedArchiveFile="$archive" -Xlog:class+load=info:file="$log"
+shared=$(grep -c "source: shared objects file (top)" "$log" || true)
+if [ "$shared" -eq 0 ]; then
+    echo "no classes were loaded from $archive, see $log" >&2
+    exit 1
+fi
+
+echo "CDS archive: $archive, classpath jar: $app_jar, classes loaded from archive: $shared"
@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# 单机压测: 启动内嵌注册中心和hello-service、user-service桩，再启动被测服务，按固定到达速率施压
+# 用法: scripts/load-test.sh <gateway|feign|ribbon|hello-sync|hello-async> [压测参数]
+# 例如: scripts/load-test.sh ribbon --load.rate=500 --load.compare-with=load-test/target/load-test/ribbon-20180101-120000
+# 桩延迟通过环境变量STUB_ARGS传入，例如STUB_ARGS="--stub.user-delay-millis=20"
+# hello-sync/hello-async直接压测hello-service的/sync/feignHello和/feignHello，延迟通过环境变量HELLO_DELAY_MILLIS设置，默认1000ms
+# 结果写入load-test/target/load-test/<目标>-<时间>/
+set -e
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+target=$1
+shift || true
+
+case "$target" in
+    gateway) modules="feign-consumer:cn.sh.feign.demo.StartFeignConsumer api-gateway:cn.sh.gateway.StartApplication" ;;
+    feign) modules="feign-consumer:cn.sh.feign.demo.StartFeignConsumer" ;;
+    ribbon) modules="ribbon-consumer:cn.sh.ribbon.StartRibbonConsumer" ;;
+    hello-sync|hello-async) modules="hello-service:cn.sh.hello.StartHelloService" ;;
+    *) echo "usage: $0 <gateway|feign|ribbon|hello-sync|hello-async> [--load.*=...]"; exit 1 ;;
+esac
+
+module_list=load-test
+for entry in $modules; do
+    module_list="$module_list,${entry%%:*}"
+done
+(cd "$root" && mvn -q -pl "$module_list" -am package dependency:build-classpath \
+    -DskipTests -Dmdep.includeScope=runtime -Dmdep.outputFile=target/classpath.txt)
+
+# 被测服务更快地拉取注册表和刷新服务列表，桩注册后几秒内即可被调用
+client_args="--eureka.client.registry-fetch-interval-seconds=5 --ribbon.ServerListRefreshInterval=2000"
+# 同步和异步版本使用同一个固定延迟，两次压测只有接口不同
+case "$target" in
+    hello-*) client_args="$client_args --hello.fault.rules.feignHello.distribution=fixed
+        --hello.fault.rules.feignHello.min-delay=${HELLO_DELAY_MILLIS:-1000}
+        --hello.fault.rules.feignHello.max-delay=${HELLO_DELAY_MILLIS:-1000}" ;;
+esac
+
+pids=()
+cleanup() {
+    for pid in "${pids[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT
+
+# 启动模块的主类，其余参数作为Spring Boot命令行参数
+run() {
+    local module=$1 main_class=$2
+    shift 2
+    java -cp "$root/$module/target/classes:$(cat "$root/$module/target/classpath.txt")" "$main_class" "$@"
+}
+
+run load-test cn.sh.loadtest.StartLoadTest --spring.profiles.active=stubs $STUB_ARGS \
+    > "$root/load-test/target/stubs.log" 2>&1 &
+pids+=($!)
+until curl -sf -o /dev/null "http://localhost:1111/eureka/apps/USER-SERVICE"; do
+    sleep 0.5
+done
+
+for entry in $modules; do
+    module=${entry%%:*}
+    run "$module" "${entry#*:}" $client_args > "$root/load-test/target/$module.log" 2>&1 &
+    pids+=($!)
+done
+
+# 驱动会等待被测服务可用后再开始计时
+cd "$root/load-test"
+run load-test cn.sh.loadtest.StartLoadTest --spring.profiles.active=driver,$target \
+    --load.run-name="$target-$(date +%Y%m%d-%H%M%S)" "$@"
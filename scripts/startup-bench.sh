@@ -0,0 +1,94 @@
+#!/usr/bin/env bash
+# 测量每个服务从启动到第一次请求成功的时间
+# 用法: scripts/startup-bench.sh [基线文件]
+# 需要先执行 mvn -P fast-startup package，生成target/<模块>-cds.jar和对应的CDS归档
+# 结果写入target/startup-times.csv(模块,模式,毫秒)，指定基线文件时，任一结果比基线慢20%以上则以非0退出
+set -e
+
+root=$(cd "$(dirname "$0")/.." && pwd)
+result="$root/target/startup-times.csv"
+baseline=$1
+threshold=1.2
+mkdir -p "$root/target"
+: > "$result"
+
+# 不依赖注册中心，消费者通过listOfServers直接访问提供者
+common_args="-Deureka.client.enabled=false -Dribbon.eureka.enabled=false"
+
+pids=()
+cleanup() {
+    for pid in "${pids[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT
+
+# 启动服务，mode为default或fast
+# 两种模式使用同一个classpath，CDS只接受生成归档时的jar，classpath中有target/classes目录时无法使用归档
+# fast模式使用-Xshare:on，归档不可用时直接启动失败，不会在不使用归档的情况下得到测量结果
+start() {
+    local module=$1 main_class=$2 mode=$3
+    shift 3
+    local target="$root/$module/target"
+    local jvm_args="$common_args"
+    if [ "$mode" = "fast" ]; then
+        jvm_args="$jvm_args -Dspring.profiles.active=fast-startup -Xshare:on -XX:SharedArchiveFile=$target/$module.jsa"
+    fi
+    java $jvm_args "$@" -cp "$target/$module-cds.jar:$(cat "$target/classpath.txt")" "$main_class" \
+        > "$target/startup-$mode.log" 2>&1 &
+    echo $!
+}
+
+# pid不为空时，服务在可用之前退出(例如-Xshare:on时归档不可用)则失败
+wait_ok() {
+    local url=$1 started=$2 pid=$3
+    until curl -sf -o /dev/null "$url"; do
+        if [ -n "$pid" ] && ! kill -0 "$pid" 2>/dev/null; then
+            echo "process $pid exited before $url became available" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    echo $(( ($(date +%s%N) - started) / 1000000 ))
+}
+
+# 测量一个服务，测量完成后关闭
+measure() {
+    local module=$1 main_class=$2 url=$3
+    shift 3
+    for mode in default fast; do
+        local started pid millis
+        started=$(date +%s%N)
+        pid=$(start "$module" "$main_class" "$mode" "$@")
+        millis=$(wait_ok "$url" "$started" "$pid")
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+        echo "$module,$mode,$millis" | tee -a "$result"
+    done
+}
+
+measure hello-service cn.sh.hello.StartHelloService "http://localhost:8080/hello1?name=bench"
+measure user-service cn.sh.user.StartUserService "http://localhost:6000/users/1"
+
+# 消费者需要提供者在线，提供者以默认模式常驻，/feignHello不注入延迟
+pids+=($(start hello-service cn.sh.hello.StartHelloService default -Dhello.fault.rules.feignHello.max-delay=0))
+pids+=($(start user-service cn.sh.user.StartUserService default))
+wait_ok "http://localhost:8080/hello1?name=bench" "$(date +%s%N)" > /dev/null
+wait_ok "http://localhost:6000/users/1" "$(date +%s%N)" > /dev/null
+
+measure ribbon-consumer cn.sh.ribbon.StartRibbonConsumer "http://localhost:9000/users/1" \
+    -DUSER-SERVICE.ribbon.listOfServers=localhost:6000
+measure feign-consumer cn.sh.feign.demo.StartFeignConsumer "http://localhost:9001/feignHello" \
+    -Dhello-service.ribbon.listOfServers=localhost:8080
+
+if [ -n "$baseline" ]; then
+    regressed=0
+    while IFS=, read -r module mode millis; do
+        base=$(grep "^$module,$mode," "$baseline" | cut -d, -f3)
+        if [ -n "$base" ] && [ "$(echo "$millis > $base * $threshold" | bc)" = "1" ]; then
+            echo "regression: $module $mode ${millis}ms, baseline ${base}ms"
+            regressed=1
+        fi
+    done < "$result"
+    exit $regressed
+fi
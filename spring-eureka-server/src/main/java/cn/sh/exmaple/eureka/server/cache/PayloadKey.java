@@ -0,0 +1,60 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+/**
+ * 注册表响应的编码方式，全量/增量、JSON/XML、完整/精简共8种
+ * @author sh
+ */
+public final class PayloadKey {
+
+    private static final PayloadKey[] KEYS = new PayloadKey[8];
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = new PayloadKey(i, (i & 4) != 0, (i & 2) != 0, (i & 1) != 0);
+        }
+    }
+
+    private final int index;
+
+    private final boolean delta;
+
+    private final boolean json;
+
+    private final boolean compact;
+
+    private PayloadKey(int index, boolean delta, boolean json, boolean compact) {
+        this.index = index;
+        this.delta = delta;
+        this.json = json;
+        this.compact = compact;
+    }
+
+    public static PayloadKey of(boolean delta, boolean json, boolean compact) {
+        return KEYS[(delta ? 4 : 0) | (json ? 2 : 0) | (compact ? 1 : 0)];
+    }
+
+    static int count() {
+        return KEYS.length;
+    }
+
+    int index() {
+        return index;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public boolean isJson() {
+        return json;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    @Override
+    public String toString() {
+        return (delta ? "delta" : "full") + "/" + (json ? "json" : "xml") + "/" + (compact ? "compact" : "full");
+    }
+}
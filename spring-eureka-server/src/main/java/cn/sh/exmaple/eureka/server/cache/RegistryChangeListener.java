@@ -0,0 +1,60 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 注册、下线时替换缓存版本
+ * 事件在注册表实际修改之前发布，因此延迟一段时间再替换，同时把短时间内的大量变化合并为一次重新编码
+ * @author sh
+ */
+public class RegistryChangeListener implements DisposableBean {
+
+    private final RegistryPayloadCache cache;
+
+    private final long delayMillis;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "registry-payload-invalidator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RegistryChangeListener(RegistryPayloadCache cache, long delayMillis) {
+        this.cache = cache;
+        this.delayMillis = delayMillis;
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        schedule();
+    }
+
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            timer.schedule(() -> {
+                scheduled.set(false);
+                cache.invalidate();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,149 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按注册表版本缓存编码并压缩后的响应
+ * 每个版本的每种编码方式只编码、压缩一次，所有客户端共用同一份只读字节数组；
+ * 注册表变化时整体替换为新版本(一次引用替换)，旧版本上正在进行的编码不会写入新版本
+ * 超过maxAge的版本同样被替换，用于覆盖没有事件通知的变化(管理接口修改状态、增量队列过期等)
+ * @author sh
+ */
+public class RegistryPayloadCache {
+
+    private final Function<PayloadKey, byte[]> encoder;
+
+    private final long maxAgeNanos;
+
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicLong encodes = new AtomicLong();
+
+    private final AtomicReference<Version> current;
+
+    /**
+     * @param encoder 把当前注册表编码为指定格式，在请求线程中调用，同一版本同一格式只调用一次
+     */
+    public RegistryPayloadCache(Function<PayloadKey, byte[]> encoder, long maxAgeMillis) {
+        this.encoder = encoder;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.current = new AtomicReference<>(new Version(versions.incrementAndGet()));
+    }
+
+    /**
+     * 获取当前版本的响应，尚未编码时由第一个请求编码，同时到达的请求等待同一次编码的结果
+     */
+    public Payload get(PayloadKey key) {
+        Version version = current.get();
+        if (System.nanoTime() - version.createdNanos > maxAgeNanos) {
+            Version next = new Version(versions.incrementAndGet());
+            version = current.compareAndSet(version, next) ? next : current.get();
+        }
+        long number = version.number;
+        FutureTask<Payload> task = version.payloads.get(key.index());
+        if (task == null) {
+            FutureTask<Payload> created = new FutureTask<>(() -> encode(key, number));
+            if (version.payloads.compareAndSet(key.index(), null, created)) {
+                created.run();
+                task = created;
+            } else {
+                task = version.payloads.get(key.index());
+            }
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while encoding " + key, e);
+        } catch (ExecutionException e) {
+            // 编码失败时不缓存，下一个请求重新编码
+            version.payloads.compareAndSet(key.index(), task, null);
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 丢弃当前版本，之后的请求重新编码
+     */
+    public void invalidate() {
+        current.set(new Version(versions.incrementAndGet()));
+    }
+
+    public long getVersion() {
+        return current.get().number;
+    }
+
+    /**
+     * @return 累计编码次数
+     */
+    public long getEncodes() {
+        return encodes.get();
+    }
+
+    private Payload encode(PayloadKey key, long number) {
+        encodes.incrementAndGet();
+        byte[] raw = encoder.apply(key);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(512, raw.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Payload(number, raw, out.toByteArray());
+    }
+
+    private static final class Version {
+
+        private final long number;
+
+        private final long createdNanos = System.nanoTime();
+
+        private final AtomicReferenceArray<FutureTask<Payload>> payloads =
+                new AtomicReferenceArray<>(PayloadKey.count());
+
+        private Version(long number) {
+            this.number = number;
+        }
+    }
+
+    /**
+     * 编码后的响应，字节数组在所有请求间共享，不能修改
+     */
+    public static final class Payload {
+
+        private final long version;
+
+        private final byte[] raw;
+
+        private final byte[] gzipped;
+
+        private Payload(long version, byte[] raw, byte[] gzipped) {
+            this.version = version;
+            this.raw = raw;
+            this.gzipped = gzipped;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getRaw() {
+            return raw;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+    }
+}
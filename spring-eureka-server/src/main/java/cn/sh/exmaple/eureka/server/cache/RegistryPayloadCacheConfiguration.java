@@ -0,0 +1,60 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 注册表响应缓存: 客户端拉取注册表时共用按版本编码、压缩好的响应，编码方式与Eureka的ResponseCache一致
+ * @author sh
+ */
+@Configuration
+@EnableConfigurationProperties(RegistryPayloadCacheProperties.class)
+@ConditionalOnProperty(prefix = "registry.payload-cache", name = "enabled", matchIfMissing = true)
+public class RegistryPayloadCacheConfiguration {
+
+    @Bean
+    public RegistryPayloadCache registryPayloadCache(RegistryPayloadCacheProperties properties,
+                                                     PeerAwareInstanceRegistry registry, ServerCodecs serverCodecs) {
+        return new RegistryPayloadCache(key -> {
+            Applications applications = key.isDelta() ? registry.getApplicationDeltas() : registry.getApplications();
+            try {
+                return serverCodecs.getEncoder(key.isJson() ? Key.KeyType.JSON : Key.KeyType.XML,
+                        key.isCompact() ? EurekaAccept.compact : EurekaAccept.full)
+                        .encode(applications).getBytes(StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, properties.getMaxAgeMillis());
+    }
+
+    @Bean
+    public RegistryChangeListener registryChangeListener(RegistryPayloadCache registryPayloadCache,
+                                                         RegistryPayloadCacheProperties properties) {
+        return new RegistryChangeListener(registryPayloadCache, properties.getInvalidateDelayMillis());
+    }
+
+    @Bean
+    public FilterRegistrationBean<RegistryPayloadFilter> registryPayloadFilter(
+            RegistryPayloadCache registryPayloadCache, PeerAwareInstanceRegistry registry,
+            EurekaServerConfig eurekaServerConfig) {
+        FilterRegistrationBean<RegistryPayloadFilter> registration = new FilterRegistrationBean<>(
+                new RegistryPayloadFilter(registryPayloadCache, registry, eurekaServerConfig, "/eureka"));
+        registration.addUrlPatterns("/eureka/apps", "/eureka/apps/", "/eureka/apps/delta", "/eureka/apps/delta/");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,37 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 注册表响应缓存配置
+ * @author sh
+ */
+@ConfigurationProperties(prefix = "registry.payload-cache")
+public class RegistryPayloadCacheProperties {
+
+    /**
+     * 收到注册、下线事件后延迟多久替换版本，期间的多次变化合并为一次重新编码
+     */
+    private long invalidateDelayMillis = 100;
+
+    /**
+     * 版本的最长使用时间，与Eureka只读缓存的刷新间隔一致
+     */
+    private long maxAgeMillis = 30000;
+
+    public long getInvalidateDelayMillis() {
+        return invalidateDelayMillis;
+    }
+
+    public void setInvalidateDelayMillis(long invalidateDelayMillis) {
+        this.invalidateDelayMillis = invalidateDelayMillis;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public void setMaxAgeMillis(long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+    }
+}
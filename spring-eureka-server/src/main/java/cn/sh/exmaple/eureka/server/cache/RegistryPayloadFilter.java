@@ -0,0 +1,101 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.util.EurekaMonitors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 在Jersey之前处理全量和增量注册表的GET请求，直接把缓存中的字节数组写入响应，不再经过Jersey序列化
+ * 内容协商与Eureka的ApplicationsResource一致: Accept包含json时返回JSON，否则返回XML，
+ * X-Eureka-Accept决定完整或精简格式，Accept-Encoding包含gzip时返回压缩后的内容
+ * 请求远程区域(regions参数)、注册表尚不允许访问或禁用增量时交给Jersey处理
+ * @author sh
+ */
+public class RegistryPayloadFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistryPayloadFilter.class);
+
+    private final RegistryPayloadCache cache;
+
+    private final PeerAwareInstanceRegistry registry;
+
+    private final EurekaServerConfig serverConfig;
+
+    private final String appsPath;
+
+    public RegistryPayloadFilter(RegistryPayloadCache cache, PeerAwareInstanceRegistry registry,
+                                 EurekaServerConfig serverConfig, String prefix) {
+        this.cache = cache;
+        this.registry = registry;
+        this.serverConfig = serverConfig;
+        this.appsPath = prefix + "/apps";
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Boolean delta = target(request);
+        if (delta == null || request.getParameter("regions") != null || !registry.shouldAllowAccess(false)
+                || (delta && serverConfig.shouldDisableDelta())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        boolean json = accept != null && accept.contains("json");
+        boolean compact = EurekaAccept.fromString(request.getHeader(EurekaAccept.HTTP_X_EUREKA_ACCEPT))
+                == EurekaAccept.compact;
+        RegistryPayloadCache.Payload payload;
+        try {
+            payload = cache.get(PayloadKey.of(delta, json, compact));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to encode registry, falling back to Jersey", e);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        (delta ? EurekaMonitors.GET_ALL_DELTA : EurekaMonitors.GET_ALL).increment();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        byte[] body;
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = payload.getGzipped();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            body = payload.getRaw();
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(json ? MediaType.APPLICATION_JSON_VALUE : MediaType.APPLICATION_XML_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * @return 全量请求返回false，增量请求返回true，其他请求返回null
+     */
+    private Boolean target(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path.equals(appsPath)) {
+            return false;
+        }
+        if (path.equals(appsPath + "/delta")) {
+            return true;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package cn.sh.exmaple.eureka.server.cache;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.EurekaAccept;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.eureka.DefaultEurekaServerContext;
+import com.netflix.eureka.EurekaServerContextHolder;
+import com.netflix.eureka.registry.Key;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl;
+import com.netflix.eureka.resources.ApplicationsResource;
+import com.netflix.eureka.resources.DefaultServerCodecs;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.springframework.cloud.netflix.eureka.EurekaClientConfigBean;
+import org.springframework.cloud.netflix.eureka.server.EurekaServerConfigBean;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对比Eureka自带的响应缓存和RegistryPayloadCache在大量客户端拉取全量注册表时的吞吐
+ * stock-readonly: Eureka默认配置，ApplicationsResource从ResponseCacheImpl的只读缓存取压缩后的响应，
+ * 只读缓存每responseCacheUpdateIntervalMs(默认30秒)从读写缓存同步一次，注册表变化最多延迟这么久才被客户端看到
+ * stock-readwrite: use-read-only-response-cache=false(load-test的注册中心桩使用该配置)，注册表变化时读写缓存失效，
+ * 下一个请求重新编码压缩
+ * shared: RegistryPayloadFilter使用的RegistryPayloadCache，注册表变化时替换版本，每个版本只编码压缩一次
+ * 三种方式使用同一个PeerAwareInstanceRegistryImpl和DefaultServerCodecs，后台每churn间隔重新注册一个实例模拟注册表变化，
+ * 注册会使ResponseCacheImpl的读写缓存失效，shared方式同时替换版本(相当于RegistryChangeListener的延迟为0)
+ * 注册表包含INSTANCES个实例，CLIENTS个客户端各拉取ROUNDS次，由THREADS个线程(模拟Tomcat工作线程)执行，
+ * 只测量服务端取得响应字节并写出的开销，不包含Jersey序列化响应和网络传输
+ * 运行: 以main方法启动，参数依次为实例数、客户端数、每个客户端的拉取次数、线程数、churn间隔毫秒，
+ * 默认10000 5000 20 2*CPU 1000
+ * @author sh
+ */
+public class RegistryPayloadBenchmark {
+
+    private static final int APPLICATIONS = 200;
+
+    private static final String ACCEPT_JSON = "application/json";
+
+    public static void main(String[] args) throws Exception {
+        int instances = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors() * 2;
+        long churnMillis = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        System.out.printf("instances=%d, clients=%d, rounds=%d, threads=%d, churn=%dms%n", instances, clients,
+                rounds, threads, churnMillis);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (boolean readOnly : new boolean[]{true, false}) {
+            PeerAwareInstanceRegistryImpl registry = registry(instances, readOnly);
+            ApplicationsResource resource = new ApplicationsResource();
+            ScheduledExecutorService churn = churn(registry, churnMillis, null);
+            run(readOnly ? "stock-readonly" : "stock-readwrite", pool, clients, rounds, () -> {
+                Response response = resource.getContainers("v2", ACCEPT_JSON, "gzip", null, null, null);
+                return (byte[]) response.getEntity();
+            });
+            churn.shutdownNow();
+        }
+
+        PeerAwareInstanceRegistryImpl registry = registry(instances, true);
+        ServerCodecs serverCodecs = EurekaServerContextHolder.getInstance().getServerContext().getServerCodecs();
+        RegistryPayloadCache cache = new RegistryPayloadCache(key -> {
+            try {
+                return serverCodecs.getEncoder(Key.KeyType.JSON, EurekaAccept.full)
+                        .encode(registry.getApplications()).getBytes(StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, 30000);
+        ScheduledExecutorService churn = churn(registry, churnMillis, cache);
+        PayloadKey key = PayloadKey.of(false, true, false);
+        run("shared", pool, clients, rounds, () -> cache.get(key).getGzipped());
+        System.out.printf("shared: %d encodes for %d versions%n", cache.getEncodes(), cache.getVersion());
+        churn.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * 与Spring Cloud的Eureka服务端相同，通过EurekaServerContextHolder向ApplicationsResource提供注册表
+     */
+    private static PeerAwareInstanceRegistryImpl registry(int instances, boolean readOnly) {
+        EurekaServerConfigBean serverConfig = new EurekaServerConfigBean();
+        serverConfig.setUseReadOnlyResponseCache(readOnly);
+        // 不等待从其他节点同步注册表，启动后即允许拉取
+        serverConfig.setWaitTimeInMsWhenSyncEmpty(0);
+        ServerCodecs serverCodecs = new DefaultServerCodecs(serverConfig);
+        PeerAwareInstanceRegistryImpl registry = new PeerAwareInstanceRegistryImpl(serverConfig,
+                new EurekaClientConfigBean(), serverCodecs, null);
+        registry.initializedResponseCache();
+        for (InstanceInfo instance : instances(instances)) {
+            registry.register(instance, LeaseInfo.DEFAULT_LEASE_DURATION, false);
+        }
+        EurekaServerContextHolder.initialize(
+                new DefaultEurekaServerContext(serverConfig, serverCodecs, registry, null, null));
+        return registry;
+    }
+
+    /**
+     * 每churnMillis重新注册一个实例，cache不为null时同时替换其版本
+     */
+    private static ScheduledExecutorService churn(PeerAwareInstanceRegistryImpl registry, long churnMillis,
+                                                  RegistryPayloadCache cache) {
+        ScheduledExecutorService churn = Executors.newSingleThreadScheduledExecutor();
+        if (churnMillis > 0) {
+            List<InstanceInfo> instances = new ArrayList<>();
+            registry.getApplications().getRegisteredApplications()
+                    .forEach(application -> instances.addAll(application.getInstances()));
+            AtomicInteger next = new AtomicInteger();
+            churn.scheduleAtFixedRate(() -> {
+                InstanceInfo instance = instances.get(next.getAndIncrement() % instances.size());
+                registry.register(new InstanceInfo(instance), LeaseInfo.DEFAULT_LEASE_DURATION, false);
+                if (cache != null) {
+                    cache.invalidate();
+                }
+            }, churnMillis, churnMillis, TimeUnit.MILLISECONDS);
+        }
+        return churn;
+    }
+
+    private static void run(String name, ExecutorService pool, int clients, int rounds, Fetch fetch) throws Exception {
+        AtomicLong fetches = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        OutputStream socket = new DiscardingOutputStream();
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    long begin = System.nanoTime();
+                    byte[] body = fetch.fetch();
+                    socket.write(body);
+                    latencyNanos.addAndGet(System.nanoTime() - begin);
+                    bytes.addAndGet(body.length);
+                    fetches.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long count = fetches.get();
+        System.out.printf("%-16s fetches=%d in %.1fs, %.0f fetches/s, %.1f MB/s written, avg latency %.2fms%n",
+                name, count, seconds, count / seconds, bytes.get() / seconds / 1024 / 1024,
+                count == 0 ? 0 : latencyNanos.get() / 1e6 / count);
+    }
+
+    private static List<InstanceInfo> instances(int instances) {
+        List<InstanceInfo> result = new ArrayList<>(instances);
+        for (int i = 0; i < instances; i++) {
+            String app = "SERVICE-" + i % APPLICATIONS;
+            String host = "10." + (i >> 16 & 255) + "." + (i >> 8 & 255) + "." + (i & 255);
+            result.add(InstanceInfo.Builder.newBuilder()
+                    .setAppName(app)
+                    .setInstanceId(host + ":" + app.toLowerCase() + ":8080")
+                    .setHostName(host)
+                    .setIPAddr(host)
+                    .setPort(8080)
+                    .setVIPAddress(app.toLowerCase())
+                    .setSecureVIPAddress(app.toLowerCase())
+                    .setHomePageUrl("/", null)
+                    .setStatusPageUrl("/actuator/info", null)
+                    .setHealthCheckUrls("/actuator/health", null, null)
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .setLeaseInfo(LeaseInfo.Builder.newBuilder().build())
+                    .setStatus(InstanceInfo.InstanceStatus.UP)
+                    .build());
+        }
+        return result;
+    }
+
+    private interface Fetch {
+        byte[] fetch();
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package cn.sh.user.controller;
 
+import cn.sh.common.deadline.DeadlineExceededException;
+import cn.sh.common.deadline.DeadlineMetrics;
 import cn.sh.common.entity.User;
+import cn.sh.common.entity.UserPage;
 import cn.sh.user.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * @author sh
@@ -21,6 +33,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    private DeadlineMetrics deadlineMetrics;
+
     @GetMapping("/users/{id}")
     public User getUserById(@PathVariable Long id) {
         return userService.getUserById(id);
@@ -28,8 +46,78 @@ public class UserController {
 
     @GetMapping("/users")
     public List<User> findAllUser(@RequestParam("ids") String ids) {
+        return userService.findAll(parseIds(ids));
+    }
+
+    @PostMapping("/user")
+    public User saveUser(@RequestBody User user) {
+        return userService.save(user);
+    }
+
+    @DeleteMapping("/users/{id}")
+    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
+        return userService.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 按年龄区间分页查询，翻页时把上一页的nextCursor原样传回
+     */
+    @GetMapping("/users/age")
+    public UserPage findByAgeRange(@RequestParam(value = "min", defaultValue = "0") int min,
+                                   @RequestParam(value = "max", defaultValue = "" + Integer.MAX_VALUE) int max,
+                                   @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                   @RequestParam(value = "cursor", required = false) String cursor) {
+        return userService.findByAgeRange(min, max, limit, cursor);
+    }
+
+    /**
+     * 按用户名前缀分页查询，翻页时把上一页的nextCursor原样传回
+     */
+    @GetMapping("/users/name")
+    public UserPage findByNamePrefix(@RequestParam("prefix") String prefix,
+                                     @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                     @RequestParam(value = "cursor", required = false) String cursor) {
+        return userService.findByNamePrefix(prefix, limit, cursor);
+    }
+
+    @GetMapping("/async/users/{id}")
+    public CompletableFuture<User> asyncGetUserById(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(deadlineMetrics.bind(() -> userService.getUserById(id)), asyncExecutor);
+    }
+
+    @GetMapping("/async/users")
+    public CompletableFuture<List<User>> asyncFindAllUser(@RequestParam("ids") String ids) {
+        List<Long> idList = parseIds(ids);
+        return CompletableFuture.supplyAsync(deadlineMetrics.bind(() -> userService.findAll(idList)), asyncExecutor);
+    }
+
+    /**
+     * 异步线程池已满时快速失败
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> rejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    /**
+     * 异步任务开始执行前截止时间已过
+     */
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> deadlineExceeded(DeadlineExceededException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+    }
+
+    /**
+     * limit越界或游标无法解析
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private List<Long> parseIds(String ids) {
         List<Long> idList = new ArrayList<>();
         Arrays.stream(ids.split(",")).forEach(id -> idList.add(Long.valueOf(id)));
-        return userService.findAll(idList);
+        return idList;
     }
 }
@@ -2,6 +2,7 @@ package cn.sh.user.service;
 
 
 import cn.sh.common.entity.User;
+import cn.sh.common.entity.UserPage;
 
 import java.util.List;
 
@@ -13,4 +14,12 @@ public interface UserService {
     User getUserById(Long id);
 
     List<User> findAll(List<Long> idList);
+
+    User save(User user);
+
+    boolean delete(Long id);
+
+    UserPage findByAgeRange(int minAge, int maxAge, int limit, String cursor);
+
+    UserPage findByNamePrefix(String prefix, int limit, String cursor);
 }
@@ -1,21 +1,32 @@
 package cn.sh.user.service.impl;
 
 import cn.sh.common.entity.User;
+import cn.sh.common.entity.UserPage;
 import cn.sh.user.service.UserService;
+import cn.sh.user.store.UserStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * 优先从UserStore中读取，未保存过的id仍返回原来构造的测试用户
  * @author sh
  */
 @Service
 public class UserServiceImpl implements UserService {
 
+    @Autowired
+    private UserStore userStore;
+
     @Override
     public User getUserById(Long id) {
-        User user = new User();
+        User user = userStore.get(id);
+        if (user != null) {
+            return user;
+        }
+        user = new User();
         user.setId(id);
         user.setName("test");
         return user;
@@ -23,13 +34,37 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<User> findAll(List<Long> idList) {
+        List<User> stored = userStore.getAll(idList);
         List<User> userList = new ArrayList<>();
-        idList.forEach(id -> {
-            User user = new User();
-            user.setId(id);
-            user.setName("sh" + id);
+        for (int i = 0; i < idList.size(); i++) {
+            User user = stored.get(i);
+            if (user == null) {
+                user = new User();
+                user.setId(idList.get(i));
+                user.setName("sh" + idList.get(i));
+            }
             userList.add(user);
-        });
+        }
         return userList;
     }
+
+    @Override
+    public User save(User user) {
+        return userStore.save(user);
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        return userStore.delete(id);
+    }
+
+    @Override
+    public UserPage findByAgeRange(int minAge, int maxAge, int limit, String cursor) {
+        return userStore.findByAgeRange(minAge, maxAge, limit, cursor);
+    }
+
+    @Override
+    public UserPage findByNamePrefix(String prefix, int limit, String cursor) {
+        return userStore.findByNamePrefix(prefix, limit, cursor);
+    }
 }
@@ -0,0 +1,173 @@
+package cn.sh.user.store;
+
+import java.util.Arrays;
+
+/**
+ * 年龄索引，按(age, id)排序的两个基本类型数组
+ * 插入和删除通过二分查找定位后移动数组元素，查询为二分查找加顺序扫描
+ * 非线程安全，由{@link UserStore}加锁
+ * @author sh
+ */
+class AgeIndex {
+
+    private int[] ages = new int[16];
+
+    private long[] ids = new long[16];
+
+    private int size;
+
+    void add(int age, long id) {
+        int index = search(age, id);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == ages.length) {
+            int capacity = size + (size >> 1);
+            ages = Arrays.copyOf(ages, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        System.arraycopy(ages, index, ages, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ages[index] = age;
+        ids[index] = id;
+        size++;
+    }
+
+    /**
+     * 批量插入，先对新数据排序再与现有数组从尾部归并，复杂度O(n + k log k)
+     * 调用方需保证新数据与现有数据以及新数据之间没有重复的(age, id)
+     * 传入的数组会被排序
+     */
+    void addAll(int[] newAges, long[] newIds, int count) {
+        sort(newAges, newIds, 0, count - 1);
+        int total = size + count;
+        if (total > ages.length) {
+            int capacity = Math.max(total, size + (size >> 1));
+            ages = Arrays.copyOf(ages, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int i = size - 1;
+        int j = count - 1;
+        for (int k = total - 1; j >= 0; k--) {
+            if (i >= 0 && compare(ages[i], ids[i], newAges[j], newIds[j]) > 0) {
+                ages[k] = ages[i];
+                ids[k] = ids[i];
+                i--;
+            } else {
+                ages[k] = newAges[j];
+                ids[k] = newIds[j];
+                j--;
+            }
+        }
+        size = total;
+    }
+
+    void remove(int age, long id) {
+        int index = search(age, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ages, index + 1, ages, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * 查询年龄在[minAge, maxAge]之间且排在(afterAge, afterId)之后的id
+     * @param afterAge 上一页最后一条记录的年龄，第一页传Integer.MIN_VALUE
+     * @param afterId 上一页最后一条记录的id，第一页传Long.MIN_VALUE
+     * @return 实际写入out的数量，每条记录占out中的一个id和outAges中的一个年龄
+     */
+    int range(int minAge, int maxAge, int afterAge, long afterId, long[] out, int[] outAges) {
+        int from;
+        if (afterAge > minAge || (afterAge == minAge && afterId != Long.MIN_VALUE)) {
+            from = search(afterAge, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+        } else {
+            from = search(minAge, Long.MIN_VALUE);
+            from = from >= 0 ? from : -from - 1;
+        }
+        int count = 0;
+        for (int i = from; i < size && count < out.length && ages[i] <= maxAge; i++) {
+            out[count] = ids[i];
+            outAges[count] = ages[i];
+            count++;
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 二分查找(age, id)，未找到时返回-(插入位置)-1
+     */
+    private int search(int age, long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(ages[mid], ids[mid], age, id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int compare(int age1, long id1, int age2, long id2) {
+        return age1 != age2 ? Integer.compare(age1, age2) : Long.compare(id1, id2);
+    }
+
+    /**
+     * 对两个平行数组按(age, id)做快速排序，小区间改用插入排序
+     */
+    private static void sort(int[] a, long[] b, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            int pivotAge = a[mid];
+            long pivotId = b[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(a[i], b[i], pivotAge, pivotId) < 0) {
+                    i++;
+                }
+                while (compare(a[j], b[j], pivotAge, pivotId) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(a, b, i++, j--);
+                }
+            }
+            // 先递归较小的一侧，控制栈深度
+            if (j - low < high - i) {
+                sort(a, b, low, j);
+                low = i;
+            } else {
+                sort(a, b, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(a[j - 1], b[j - 1], a[j], b[j]) > 0; j--) {
+                swap(a, b, j - 1, j);
+            }
+        }
+    }
+
+    private static void swap(int[] a, long[] b, int i, int j) {
+        int age = a[i];
+        a[i] = a[j];
+        a[j] = age;
+        long id = b[i];
+        b[i] = b[j];
+        b[j] = id;
+    }
+}
@@ -0,0 +1,190 @@
+package cn.sh.user.store;
+
+import java.util.Arrays;
+
+/**
+ * 用户名前缀树，子节点按字符排序存放在数组中，每个节点保存以该节点结尾的用户名对应的id(升序)
+ * 前缀查询按(name, id)顺序返回，可以从上一页最后一条记录之后继续
+ * 非线程安全，由{@link UserStore}加锁
+ * @author sh
+ */
+class NameTrie {
+
+    private final Node root = new Node();
+
+    private int size;
+
+    void add(String name, long id) {
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.childOrCreate(name.charAt(i));
+        }
+        if (node.addId(id)) {
+            size++;
+        }
+    }
+
+    void remove(String name, long id) {
+        Node node = root;
+        for (int i = 0; i < name.length() && node != null; i++) {
+            node = node.child(name.charAt(i));
+        }
+        if (node != null && node.removeId(id)) {
+            size--;
+        }
+    }
+
+    /**
+     * 查询以prefix开头且排在(afterName, afterId)之后的用户
+     * @param afterName 上一页最后一条记录的用户名，第一页传null
+     * @return 实际写入的数量
+     */
+    int prefix(String prefix, String afterName, long afterId, long[] outIds, String[] outNames) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null) {
+            return 0;
+        }
+        boolean bounded = afterName != null && afterName.startsWith(prefix);
+        if (afterName != null && !bounded && afterName.compareTo(prefix) > 0) {
+            // 游标已经越过该前缀的全部用户名
+            return 0;
+        }
+        Collector collector = new Collector(outIds, outNames);
+        walk(node, new StringBuilder(prefix), bounded ? afterName : null, afterId, collector);
+        return collector.count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 按字典序深度优先遍历，after不为null时当前路径是after的前缀，需要跳过不大于游标的记录
+     */
+    private void walk(Node node, StringBuilder path, String after, long afterId, Collector collector) {
+        if (after == null) {
+            collector.addAll(path, node.ids, node.idCount, Long.MIN_VALUE, false);
+        } else if (path.length() == after.length()) {
+            collector.addAll(path, node.ids, node.idCount, afterId, true);
+        }
+        boolean childrenBounded = after != null && path.length() < after.length();
+        char next = childrenBounded ? after.charAt(path.length()) : 0;
+        for (int i = 0; i < node.childCount && !collector.isFull(); i++) {
+            char c = node.keys[i];
+            if (childrenBounded && c < next) {
+                continue;
+            }
+            path.append(c);
+            walk(node.children[i], path, childrenBounded && c == next ? after : null, afterId, collector);
+            path.setLength(path.length() - 1);
+        }
+    }
+
+    private static final class Collector {
+
+        private final long[] ids;
+
+        private final String[] names;
+
+        private int count;
+
+        private Collector(long[] ids, String[] names) {
+            this.ids = ids;
+            this.names = names;
+        }
+
+        private void addAll(CharSequence name, long[] nodeIds, int idCount, long afterId, boolean exclusive) {
+            if (idCount == 0) {
+                return;
+            }
+            String value = null;
+            for (int i = 0; i < idCount && !isFull(); i++) {
+                if (exclusive && nodeIds[i] <= afterId) {
+                    continue;
+                }
+                if (value == null) {
+                    value = name.toString();
+                }
+                ids[count] = nodeIds[i];
+                names[count] = value;
+                count++;
+            }
+        }
+
+        private boolean isFull() {
+            return count == ids.length;
+        }
+    }
+
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private static final long[] NO_IDS = new long[0];
+
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private int childCount;
+
+        private long[] ids = NO_IDS;
+
+        private int idCount;
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -index - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node child = new Node();
+            keys[index] = c;
+            children[index] = child;
+            childCount++;
+            return child;
+        }
+
+        private boolean addId(long id) {
+            int index = Arrays.binarySearch(ids, 0, idCount, id);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(1, idCount * 2));
+            }
+            System.arraycopy(ids, index, ids, index + 1, idCount - index);
+            ids[index] = id;
+            idCount++;
+            return true;
+        }
+
+        private boolean removeId(long id) {
+            int index = Arrays.binarySearch(ids, 0, idCount, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, idCount - index - 1);
+            idCount--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package cn.sh.user.store;
+
+import cn.sh.common.entity.User;
+import cn.sh.common.entity.UserPage;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存中的用户存储，维护按id的主表以及age、name两个二级索引
+ * 写操作在写锁内同时更新主表和索引，保证索引与数据一致；查询在读锁内完成
+ * 游标为上一页最后一条记录的排序键，Base64编码后对调用方不透明，数据在两次翻页之间变化时不会重复或遗漏未变化的记录
+ * age或name为null的用户不进入对应索引
+ * @author sh
+ */
+@Component
+public class UserStore {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final Map<Long, User> users = new HashMap<>();
+
+    private final AgeIndex ageIndex = new AgeIndex();
+
+    private final NameTrie nameTrie = new NameTrie();
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 保存用户，id为空时分配新id，已存在时先移除旧的索引项
+     * @return 保存后的用户副本
+     */
+    public User save(User user) {
+        User copy = copy(user);
+        lock.writeLock().lock();
+        try {
+            if (copy.getId() == null) {
+                copy.setId(idGenerator.incrementAndGet());
+            }
+            User old = users.put(copy.getId(), copy);
+            if (old != null) {
+                unindex(old);
+            }
+            index(copy);
+            idGenerator.accumulateAndGet(copy.getId(), Math::max);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return copy(copy);
+    }
+
+    /**
+     * 批量保存，新用户的年龄索引一次性归并写入，适合初始化加载大量数据
+     * 同一批次内的id不能重复
+     */
+    public void saveAll(Collection<User> batch) {
+        int[] ages = new int[batch.size()];
+        long[] ids = new long[batch.size()];
+        int count = 0;
+        lock.writeLock().lock();
+        try {
+            for (User user : batch) {
+                User copy = copy(user);
+                if (copy.getId() == null) {
+                    copy.setId(idGenerator.incrementAndGet());
+                }
+                User old = users.put(copy.getId(), copy);
+                if (old != null) {
+                    unindex(old);
+                }
+                idGenerator.accumulateAndGet(copy.getId(), Math::max);
+                if (copy.getName() != null) {
+                    nameTrie.add(copy.getName(), copy.getId());
+                }
+                if (copy.getAge() != null) {
+                    ages[count] = copy.getAge();
+                    ids[count] = copy.getId();
+                    count++;
+                }
+            }
+            ageIndex.addAll(ages, ids, count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean delete(Long id) {
+        lock.writeLock().lock();
+        try {
+            User old = users.remove(id);
+            if (old == null) {
+                return false;
+            }
+            unindex(old);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public User get(Long id) {
+        lock.readLock().lock();
+        try {
+            User user = users.get(id);
+            return user == null ? null : copy(user);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 批量按id查询，不存在的id对应位置为null
+     */
+    public List<User> getAll(Collection<Long> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                User user = users.get(id);
+                result.add(user == null ? null : copy(user));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 查询年龄在[minAge, maxAge]之间的用户，按(age, id)升序
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     */
+    public UserPage findByAgeRange(int minAge, int maxAge, int limit, String cursor) {
+        int afterAge = Integer.MIN_VALUE;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null) {
+            String[] parts = decode(cursor).split(":", 2);
+            try {
+                afterAge = Integer.parseInt(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid cursor: " + cursor);
+            }
+        }
+        int size = checkLimit(limit) + 1;
+        long[] ids = new long[size];
+        int[] ages = new int[size];
+        lock.readLock().lock();
+        try {
+            int count = ageIndex.range(minAge, maxAge, afterAge, afterId, ids, ages);
+            int pageSize = Math.min(count, limit);
+            String next = count > limit ? encode(ages[pageSize - 1] + ":" + ids[pageSize - 1]) : null;
+            return new UserPage(load(ids, pageSize), next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询用户名以prefix开头的用户，按(name, id)升序
+     * @param cursor 上一页返回的nextCursor，第一页传null
+     */
+    public UserPage findByNamePrefix(String prefix, int limit, String cursor) {
+        String afterName = null;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null) {
+            String[] parts = decode(cursor).split(":", 2);
+            try {
+                afterId = Long.parseLong(parts[0]);
+                afterName = parts[1];
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid cursor: " + cursor);
+            }
+        }
+        int size = checkLimit(limit) + 1;
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        lock.readLock().lock();
+        try {
+            int count = nameTrie.prefix(prefix, afterName, afterId, ids, names);
+            int pageSize = Math.min(count, limit);
+            String next = count > limit ? encode(ids[pageSize - 1] + ":" + names[pageSize - 1]) : null;
+            return new UserPage(load(ids, pageSize), next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return users.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<User> load(long[] ids, int count) {
+        List<User> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(copy(users.get(ids[i])));
+        }
+        return result;
+    }
+
+    private void index(User user) {
+        if (user.getAge() != null) {
+            ageIndex.add(user.getAge(), user.getId());
+        }
+        if (user.getName() != null) {
+            nameTrie.add(user.getName(), user.getId());
+        }
+    }
+
+    private void unindex(User user) {
+        if (user.getAge() != null) {
+            ageIndex.remove(user.getAge(), user.getId());
+        }
+        if (user.getName() != null) {
+            nameTrie.remove(user.getName(), user.getId());
+        }
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor: " + cursor);
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getName(), user.getAge());
+        copy.setId(user.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,126 @@
+package cn.sh.user.store;
+
+import cn.sh.common.entity.User;
+import cn.sh.common.entity.UserPage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * 对比UserStore索引查询与全表扫描(过滤后排序取一页)的查询延迟
+ * 运行: 以main方法启动，参数为用户数量，默认1000000；10000000时需要-Xmx4400m以上
+ * <pre>
+ * mvn -pl user-service -am test-compile
+ * java -Xmx3g -cp user-service/target/classes:user-service/target/test-classes:common/target/classes \
+ *     cn.sh.user.store.UserIndexBenchmark 1000000
+ * </pre>
+ * @author sh
+ */
+public class UserIndexBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int INDEX_QUERIES = 20000;
+
+    private static final int SCAN_QUERIES = 20;
+
+    private static final Comparator<User> BY_AGE = Comparator.comparing(User::getAge).thenComparing(User::getId);
+
+    private static final Comparator<User> BY_NAME = Comparator.comparing(User::getName).thenComparing(User::getId);
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 1; i <= userCount; i++) {
+            User user = new User(randomName(random), random.nextInt(100));
+            user.setId((long) i);
+            users.add(user);
+        }
+        UserStore store = new UserStore();
+        long start = System.nanoTime();
+        store.saveAll(users);
+        System.out.printf("users=%d, load=%dms%n", userCount, (System.nanoTime() - start) / 1_000_000);
+        User[] table = users.toArray(new User[0]);
+
+        long sink = 0;
+        long[] latencies = new long[INDEX_QUERIES];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < INDEX_QUERIES; i++) {
+                int minAge = random.nextInt(95);
+                long t = System.nanoTime();
+                UserPage page = store.findByAgeRange(minAge, minAge + 4, PAGE_SIZE, null);
+                // 翻到第二页，验证游标续查的开销
+                page = store.findByAgeRange(minAge, minAge + 4, PAGE_SIZE, page.getNextCursor());
+                latencies[i] = System.nanoTime() - t;
+                sink += page.getUsers().size();
+            }
+        }
+        report("age index (2 pages)", latencies);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < INDEX_QUERIES; i++) {
+                String prefix = randomName(random).substring(0, 2);
+                long t = System.nanoTime();
+                UserPage page = store.findByNamePrefix(prefix, PAGE_SIZE, null);
+                if (page.getNextCursor() != null) {
+                    page = store.findByNamePrefix(prefix, PAGE_SIZE, page.getNextCursor());
+                }
+                latencies[i] = System.nanoTime() - t;
+                sink += page.getUsers().size();
+            }
+        }
+        report("name trie (2 pages)", latencies);
+
+        long[] scanLatencies = new long[SCAN_QUERIES];
+        for (int i = 0; i < SCAN_QUERIES; i++) {
+            int minAge = random.nextInt(95);
+            long t = System.nanoTime();
+            sink += scan(table, u -> u.getAge() >= minAge && u.getAge() <= minAge + 4, BY_AGE).size();
+            scanLatencies[i] = System.nanoTime() - t;
+        }
+        report("age full scan", scanLatencies);
+        for (int i = 0; i < SCAN_QUERIES; i++) {
+            String prefix = randomName(random).substring(0, 2);
+            long t = System.nanoTime();
+            sink += scan(table, u -> u.getName().startsWith(prefix), BY_NAME).size();
+            scanLatencies[i] = System.nanoTime() - t;
+        }
+        report("name full scan", scanLatencies);
+        System.out.println("sink=" + sink);
+    }
+
+    /**
+     * 全表扫描：过滤出全部匹配记录，排序后取前两页，等价于客户端拉取全部用户后自行过滤分页
+     */
+    private static List<User> scan(User[] table, Predicate<User> filter, Comparator<User> order) {
+        List<User> matched = new ArrayList<>();
+        for (User user : table) {
+            if (filter.test(user)) {
+                matched.add(user);
+            }
+        }
+        matched.sort(order);
+        return matched.subList(0, Math.min(matched.size(), PAGE_SIZE * 2));
+    }
+
+    private static String randomName(Random random) {
+        char[] name = new char[3 + random.nextInt(6)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+
+    private static void report(String name, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-20s p50=%8.1fus p99=%8.1fus max=%8.1fus%n", name,
+                sorted[sorted.length / 2] / 1000.0,
+                sorted[(int) (sorted.length * 0.99)] / 1000.0,
+                sorted[sorted.length - 1] / 1000.0);
+    }
+}